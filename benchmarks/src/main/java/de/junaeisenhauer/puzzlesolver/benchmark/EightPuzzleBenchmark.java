@@ -0,0 +1,58 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategies;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a set of 8 puzzle instances with the same optimal solution depth. Every invocation starts with new nodes,
+ * because nodes cache their children and estimations.
+ * Iterative deepening is measured on smaller depths by {@link TreeSearchBenchmark}, the strategies without optimal
+ * solutions by {@link SuboptimalBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EightPuzzleBenchmark {
+
+    @Param({"breadth", "bidirectional", "externalbreadth", "astar", "idastar", "parallelastar", "parallelidastar",
+            "bidirectionalheuristic", "memorybounded"})
+    private String strategy;
+    @Param({"10", "20", "31"})
+    private int depth;
+    @Param("10")
+    private int count;
+    @Param("42")
+    private long seed;
+
+    private SolveStrategy solveStrategy;
+    private List<int[]> instances;
+
+    @Setup
+    public void setUp() {
+        solveStrategy = SolveStrategies.create(strategy);
+        instances = Instances.createEightPuzzle(depth, count, seed);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (int[] state : instances) {
+            Node<int[]> start = new PuzzleNode(null, Instances.EIGHT_PUZZLE, state, null);
+            Node<int[]> result = solveStrategy.solve(start);
+            if (result == null || result.getCosts() != depth) {
+                throw new IllegalStateException("No optimal solution found by " + strategy);
+            }
+            blackhole.consume(result);
+        }
+    }
+
+}
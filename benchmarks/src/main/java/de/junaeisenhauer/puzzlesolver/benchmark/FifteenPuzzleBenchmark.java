@@ -0,0 +1,59 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.AdditivePatternDatabase;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategies;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves random 15 puzzle instances with the additive pattern database, which is built on the first run and loaded
+ * from {@link AdditivePatternDatabase#DEFAULT_DIRECTORY} afterwards. Only the strategies with linear memory are able to
+ * solve random instances, the others run out of memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FifteenPuzzleBenchmark {
+
+    @Param({"idastar", "parallelidastar"})
+    private String strategy;
+    @Param("10")
+    private int count;
+    @Param("42")
+    private long seed;
+
+    private SolveStrategy solveStrategy;
+    private Heuristic heuristic;
+    private List<int[]> instances;
+
+    @Setup
+    public void setUp() throws IOException {
+        solveStrategy = SolveStrategies.create(strategy);
+        heuristic = AdditivePatternDatabase.load(Instances.FIFTEEN_PUZZLE, AdditivePatternDatabase.DEFAULT_DIRECTORY);
+        instances = Instances.createFifteenPuzzle(count, seed);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (int[] state : instances) {
+            Node<int[]> start = new PuzzleNode(null, Instances.FIFTEEN_PUZZLE, state, null, heuristic);
+            Node<int[]> result = solveStrategy.solve(start);
+            if (result == null) {
+                throw new IllegalStateException("No solution found by " + strategy);
+            }
+            blackhole.consume(result);
+        }
+    }
+
+}
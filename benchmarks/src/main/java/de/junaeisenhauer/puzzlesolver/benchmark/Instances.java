@@ -0,0 +1,114 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible puzzle instances for the benchmarks. The same seed always results in the same instances, so
+ * measurements of different versions can be compared.
+ */
+public final class Instances {
+
+    public static final PuzzleNode.PuzzleSize EIGHT_PUZZLE = new PuzzleNode.PuzzleSize(3, 3);
+    public static final PuzzleNode.PuzzleSize FIFTEEN_PUZZLE = new PuzzleNode.PuzzleSize(4, 4);
+    /**
+     * The largest optimal solution depth of the 8 puzzle.
+     */
+    public static final int EIGHT_PUZZLE_MAX_DEPTH = 31;
+
+    private static List<List<int[]>> eightPuzzleLayers;
+
+    private Instances() {
+    }
+
+    /**
+     * Selects 8 puzzle states with the given optimal solution depth. The states are taken from a breadth search of
+     * the whole state space, so the depth is exact.
+     *
+     * @param depth the optimal solution depth from 0 to {@value #EIGHT_PUZZLE_MAX_DEPTH}
+     * @param count the number of instances, repeated if there are less states with the depth
+     * @param seed  the seed of the selection
+     * @return the states of the instances
+     */
+    public static List<int[]> createEightPuzzle(int depth, int count, long seed) {
+        if (depth < 0 || depth > EIGHT_PUZZLE_MAX_DEPTH) {
+            throw new IllegalArgumentException("The depth must be between 0 and " + EIGHT_PUZZLE_MAX_DEPTH);
+        }
+        List<int[]> layer = new ArrayList<>(getEightPuzzleLayers().get(depth));
+        Collections.shuffle(layer, new Random(seed));
+        List<int[]> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            instances.add(layer.get(i % layer.size()).clone());
+        }
+        return instances;
+    }
+
+    /**
+     * Creates random solvable 15 puzzle states in the style of Korf's 100 instances, which are uniformly distributed
+     * over the solvable permutations.
+     *
+     * @param count the number of instances
+     * @param seed  the seed of the random permutations
+     * @return the states of the instances
+     */
+    public static List<int[]> createFifteenPuzzle(int count, long seed) {
+        Random random = new Random(seed);
+        int length = FIFTEEN_PUZZLE.getWidth() * FIFTEEN_PUZZLE.getHeight();
+        List<int[]> instances = new ArrayList<>(count);
+        while (instances.size() < count) {
+            int[] state = new int[length];
+            for (int i = 0; i < length; i++) {
+                state[i] = i;
+            }
+            for (int i = length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tile = state[i];
+                state[i] = state[j];
+                state[j] = tile;
+            }
+            if (new PuzzleNode(null, FIFTEEN_PUZZLE, state, null).isSolvable()) {
+                instances.add(state);
+            }
+        }
+        return instances;
+    }
+
+    private static synchronized List<List<int[]>> getEightPuzzleLayers() {
+        if (eightPuzzleLayers != null) {
+            return eightPuzzleLayers;
+        }
+
+        List<List<int[]>> layers = new ArrayList<>();
+        Set<PuzzleNode> visited = new HashSet<>();
+        PuzzleNode goal = PuzzleNode.createGoal(EIGHT_PUZZLE);
+        Queue<PuzzleNode> queue = new ArrayDeque<>();
+        queue.add(goal);
+        visited.add(goal);
+        while (!queue.isEmpty()) {
+            PuzzleNode node = queue.poll();
+            int depth = node.getCosts();
+            if (depth == layers.size()) {
+                layers.add(new ArrayList<>());
+            }
+            layers.get(depth).add(node.getState());
+            for (Node<int[]> child : node.getChildren()) {
+                if (visited.add((PuzzleNode) child)) {
+                    queue.add((PuzzleNode) child);
+                }
+            }
+        }
+
+        eightPuzzleLayers = layers;
+        return layers;
+    }
+
+}
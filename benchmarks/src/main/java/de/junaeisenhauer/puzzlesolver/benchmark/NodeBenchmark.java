@@ -0,0 +1,116 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.AdditivePatternDatabase;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.ManhattanDistance;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the hot path of the searches: the expansion of a node and the heuristic estimation.
+ * The nodes are taken from the middle of random 15 puzzle instances, so all moves are possible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+
+    private static final int INSTANCES = 64;
+
+    @Param({"manhattan", "pdb"})
+    private String heuristic;
+
+    private PuzzleNode[] nodes;
+    private int[][] states;
+    private Heuristic estimation;
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (heuristic.equals("pdb")) {
+            estimation = AdditivePatternDatabase.load(Instances.FIFTEEN_PUZZLE,
+                    AdditivePatternDatabase.DEFAULT_DIRECTORY);
+        } else {
+            estimation = new ManhattanDistance(Instances.FIFTEEN_PUZZLE);
+        }
+
+        List<int[]> instances = Instances.createFifteenPuzzle(INSTANCES, 42);
+        nodes = new PuzzleNode[INSTANCES];
+        states = new int[INSTANCES][];
+        for (int i = 0; i < INSTANCES; i++) {
+            int[] state = instances.get(i);
+            // move the space to the center
+            int space = 0;
+            while (state[space] != 0) {
+                space++;
+            }
+            state[space] = state[5];
+            state[5] = 0;
+            nodes[i] = new PuzzleNode(null, Instances.FIFTEEN_PUZZLE, state, null, estimation);
+            states[i] = state;
+        }
+    }
+
+    private PuzzleNode nextNode() {
+        index = (index + 1) % INSTANCES;
+        return nodes[index];
+    }
+
+    /**
+     * Generates the children of a node as the searches do, including the list and the check against the parent.
+     */
+    @Benchmark
+    public List<Node<int[]>> generateChildren() {
+        return nextNode().generateChildren();
+    }
+
+    /**
+     * Creates all children of a node one by one, without the list and the check against the parent.
+     */
+    @Benchmark
+    public void expandNode(Blackhole blackhole) {
+        PuzzleNode node = nextNode();
+        for (PuzzleNode.MoveDirection direction : PuzzleNode.MoveDirection.values()) {
+            blackhole.consume(node.getChild(direction));
+        }
+    }
+
+    /**
+     * Creates a node from a state and generates its children, as done for every start node.
+     */
+    @Benchmark
+    public List<Node<int[]>> createAndExpandNode() {
+        index = (index + 1) % INSTANCES;
+        return new PuzzleNode(null, Instances.FIFTEEN_PUZZLE, states[index], null, estimation).generateChildren();
+    }
+
+    /**
+     * Estimates the children of a node, which includes unpacking their states.
+     */
+    @Benchmark
+    public void estimateChildren(Blackhole blackhole) {
+        PuzzleNode node = nextNode();
+        for (PuzzleNode.MoveDirection direction : PuzzleNode.MoveDirection.values()) {
+            blackhole.consume(node.getChild(direction).getHeuristicEstimation());
+        }
+    }
+
+    /**
+     * Evaluates only the heuristic on a plain state.
+     */
+    @Benchmark
+    public int estimateState() {
+        index = (index + 1) % INSTANCES;
+        return estimation.estimate(states[index]);
+    }
+
+}
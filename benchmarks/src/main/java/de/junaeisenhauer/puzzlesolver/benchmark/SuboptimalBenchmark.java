@@ -0,0 +1,95 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategies;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves 8 puzzle instances with the strategies which do not guarantee an optimal solution. Instead of the depth the
+ * solution path is checked: it has to lead from the instance to the goal by moves of the space to a neighbor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuboptimalBenchmark {
+
+    @Param({"weightedastar", "anytimeastar", "reduction"})
+    private String strategy;
+    @Param({"10", "20", "31"})
+    private int depth;
+    @Param("10")
+    private int count;
+    @Param("42")
+    private long seed;
+
+    private SolveStrategy solveStrategy;
+    private List<int[]> instances;
+
+    @Setup
+    public void setUp() {
+        solveStrategy = SolveStrategies.create(strategy);
+        instances = Instances.createEightPuzzle(depth, count, seed);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (int[] state : instances) {
+            Node<int[]> start = new PuzzleNode(null, Instances.EIGHT_PUZZLE, state, null);
+            Node<int[]> result = solveStrategy.solve(start);
+            if (result == null || !isValidSolution(result, state)) {
+                throw new IllegalStateException("No valid solution found by " + strategy);
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    private boolean isValidSolution(Node<int[]> result, int[] start) {
+        if (!result.isGoal() || result.getCosts() < depth) {
+            return false;
+        }
+        Node<int[]> node = result;
+        for (; node.getParent() != null; node = node.getParent()) {
+            if (!isMove(node.getParent().getState(), node.getState())) {
+                return false;
+            }
+        }
+        return Arrays.equals(node.getState(), start);
+    }
+
+    /**
+     * @return if the space of the parent has been swapped with a tile next to it
+     */
+    private static boolean isMove(int[] parent, int[] child) {
+        int width = Instances.EIGHT_PUZZLE.getWidth();
+        int first = -1;
+        int second = -1;
+        for (int position = 0; position < parent.length; position++) {
+            if (parent[position] != child[position]) {
+                if (first == -1) {
+                    first = position;
+                } else if (second == -1) {
+                    second = position;
+                } else {
+                    return false;
+                }
+            }
+        }
+        if (second == -1 || parent[first] != child[second] || parent[second] != child[first]
+                || parent[first] != 0 && parent[second] != 0) {
+            return false;
+        }
+        int distance = second - first;
+        return distance == width || distance == 1 && first / width == second / width;
+    }
+
+}
@@ -0,0 +1,56 @@
+package de.junaeisenhauer.puzzlesolver.benchmark;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategies;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves 8 puzzle instances with iterative deepening, which searches the tree of all paths again in each iteration
+ * and only prunes the duplicates within an iteration, so it is measured on small depths. Depth search is not included,
+ * because its solutions are not optimal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeSearchBenchmark {
+
+    @Param("iterative")
+    private String strategy;
+    @Param({"10", "15", "20"})
+    private int depth;
+    @Param("10")
+    private int count;
+    @Param("42")
+    private long seed;
+
+    private SolveStrategy solveStrategy;
+    private List<int[]> instances;
+
+    @Setup
+    public void setUp() {
+        solveStrategy = SolveStrategies.create(strategy);
+        instances = Instances.createEightPuzzle(depth, count, seed);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (int[] state : instances) {
+            Node<int[]> start = new PuzzleNode(null, Instances.EIGHT_PUZZLE, state, null);
+            Node<int[]> result = solveStrategy.solve(start);
+            if (result == null || result.getCosts() != depth) {
+                throw new IllegalStateException("No optimal solution found by " + strategy);
+            }
+            blackhole.consume(result);
+        }
+    }
+
+}
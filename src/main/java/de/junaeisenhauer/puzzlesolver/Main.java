@@ -1,11 +1,20 @@
 package de.junaeisenhauer.puzzlesolver;
 
+import de.junaeisenhauer.puzzlesolver.batch.BatchMain;
+
+import java.util.Arrays;
+
 /**
- * Entry point of the program.
+ * Entry point of the program. Starts the user interface or, with the first argument {@code --batch}, the headless
+ * batch solver.
  */
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchMain.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         PuzzleSolverApp.main(args);
     }
 
@@ -0,0 +1,299 @@
+package de.junaeisenhauer.puzzlesolver.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Finite state machine which prunes move sequences of depth first searches leading to states which are also reached
+ * by another sequence of at most the same length. Each move is one {@link #next(int, int) transition}, so the pruning
+ * only costs the automaton state of each node on the search path.
+ * <p>
+ * The automaton is built by a breadth search over all move sequences up to a maximum length on an unbounded board.
+ * A sequence is a duplicate if a sequence which is smaller by length and then lexicographically by the direction
+ * ordinals moves all tiles the same way and keeps the space within the bounding box of the sequence, so it can be
+ * used wherever the sequence itself can. Replacing a duplicate by the smaller sequence never makes a path longer, so
+ * the smallest optimal path of every state contains no duplicate and searches stay complete and optimal. The
+ * duplicates, e.g. the reverse moves or the two directions around a 2x2 block, are compiled into an Aho-Corasick
+ * automaton which rejects all sequences containing one of them.
+ * Directions are passed as the ordinal of {@link PuzzleNode.MoveDirection} like for {@link PuzzleBoard}.
+ */
+public class DuplicateMoveAutomaton {
+
+    public static final int START = 0;
+    /**
+     * The transition result of a move which completes a duplicate sequence.
+     */
+    public static final int PRUNED = -1;
+    public static final int DEFAULT_MAX_LENGTH = 10;
+
+    private static final int DIRECTIONS = PuzzleNode.MoveDirection.values().length;
+    private static final int[] DELTA_X = createDeltas(PuzzleNode.MoveDirection.RIGHT, PuzzleNode.MoveDirection.LEFT);
+    private static final int[] DELTA_Y = createDeltas(PuzzleNode.MoveDirection.DOWN, PuzzleNode.MoveDirection.UP);
+    private static final int MOVE_BITS = 2;
+    private static final int MAX_LENGTH = (Long.SIZE - Byte.SIZE) / MOVE_BITS;
+
+    private static final Map<Integer, DuplicateMoveAutomaton> AUTOMATONS = new HashMap<>();
+
+    /**
+     * The next state of each state and direction at index state * 4 + direction.
+     */
+    private final int[] transitions;
+    private final int duplicateCount;
+
+    /**
+     * Builds the automaton, which takes about 3 times longer for each additional move of the maximum length, 1 second
+     * for the {@link #DEFAULT_MAX_LENGTH}.
+     *
+     * @param maxLength the maximum length of the duplicate sequences
+     */
+    public DuplicateMoveAutomaton(int maxLength) {
+        if (maxLength < 0 || maxLength > MAX_LENGTH) {
+            throw new IllegalArgumentException("The maximum length must be between 0 and " + MAX_LENGTH);
+        }
+        List<Sequence> duplicates = findDuplicates(maxLength);
+        duplicateCount = duplicates.size();
+        transitions = compile(duplicates);
+    }
+
+    /**
+     * Gets a shared automaton, which is built by the first call for the maximum length.
+     *
+     * @param maxLength the maximum length of the duplicate sequences, 2 only prunes reverse moves
+     * @return the automaton
+     */
+    public static synchronized DuplicateMoveAutomaton get(int maxLength) {
+        return AUTOMATONS.computeIfAbsent(maxLength, DuplicateMoveAutomaton::new);
+    }
+
+    /**
+     * Gets the state after a move.
+     *
+     * @param state     the current state, {@link #START} for the start of the search
+     * @param direction the ordinal of the move direction
+     * @return the next state or {@link #PRUNED} if the move completes a duplicate sequence
+     */
+    public int next(int state, int direction) {
+        return transitions[state * DIRECTIONS + direction];
+    }
+
+    public int getStateCount() {
+        return transitions.length / DIRECTIONS;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    private static List<Sequence> findDuplicates(int maxLength) {
+        // the space starts in the center, so it never leaves the simulated board
+        int width = 2 * maxLength + 1;
+        int[] board = new int[width * width];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = i;
+        }
+        int center = maxLength * width + maxLength;
+
+        List<Sequence> duplicates = new ArrayList<>();
+        Set<Long> duplicateKeys = new HashSet<>();
+        Map<String, Sequence> smallest = new HashMap<>();
+        List<Sequence> layer = new ArrayList<>();
+        Sequence empty = new Sequence(0, 0);
+        smallest.put(empty.getEffect(board, width, center), empty);
+        layer.add(empty);
+        for (int length = 1; length <= maxLength; length++) {
+            List<Sequence> nextLayer = new ArrayList<>();
+            // expanding in direction order keeps each layer sorted lexicographically
+            for (Sequence sequence : layer) {
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    Sequence child = sequence.append(direction);
+                    if (hasDuplicateSuffix(child, duplicateKeys)) {
+                        continue;
+                    }
+                    String effect = child.getEffect(board, width, center);
+                    Sequence other = smallest.putIfAbsent(effect, child);
+                    if (other != null && child.containsBoundingBox(other)) {
+                        duplicates.add(child);
+                        duplicateKeys.add(child.getKey(0));
+                    } else {
+                        nextLayer.add(child);
+                    }
+                }
+            }
+            layer = nextLayer;
+        }
+        return duplicates;
+    }
+
+    /**
+     * Checks the proper suffixes of a sequence, its prefix contains no duplicate.
+     */
+    private static boolean hasDuplicateSuffix(Sequence sequence, Set<Long> duplicateKeys) {
+        for (int start = 1; start < sequence.length - 1; start++) {
+            if (duplicateKeys.contains(sequence.getKey(start))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] compile(List<Sequence> duplicates) {
+        // trie of all duplicates
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(createEmptyTransitions());
+        terminal.add(false);
+        for (Sequence duplicate : duplicates) {
+            int state = START;
+            for (int i = 0; i < duplicate.length; i++) {
+                int direction = duplicate.get(i);
+                if (trie.get(state)[direction] == PRUNED) {
+                    trie.get(state)[direction] = trie.size();
+                    trie.add(createEmptyTransitions());
+                    terminal.add(false);
+                }
+                state = trie.get(state)[direction];
+            }
+            terminal.set(state, true);
+        }
+
+        // failure links in breadth first order turn the trie into a complete transition table
+        int[] transitions = new int[trie.size() * DIRECTIONS];
+        int[] failure = new int[trie.size()];
+        boolean[] rejected = new boolean[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int child = trie.get(START)[direction];
+            if (child == PRUNED) {
+                transitions[direction] = START;
+            } else {
+                transitions[direction] = child;
+                failure[child] = START;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            rejected[state] = terminal.get(state) || rejected[failure[state]];
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int child = trie.get(state)[direction];
+                if (child == PRUNED) {
+                    transitions[state * DIRECTIONS + direction] = transitions[failure[state] * DIRECTIONS + direction];
+                } else {
+                    transitions[state * DIRECTIONS + direction] = child;
+                    failure[child] = transitions[failure[state] * DIRECTIONS + direction];
+                    queue.add(child);
+                }
+            }
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            if (rejected[transitions[i]]) {
+                transitions[i] = PRUNED;
+            }
+        }
+        return transitions;
+    }
+
+    private static int[] createEmptyTransitions() {
+        int[] transitions = new int[DIRECTIONS];
+        Arrays.fill(transitions, PRUNED);
+        return transitions;
+    }
+
+    private static int[] createDeltas(PuzzleNode.MoveDirection positive, PuzzleNode.MoveDirection negative) {
+        int[] deltas = new int[DIRECTIONS];
+        deltas[positive.ordinal()] = 1;
+        deltas[negative.ordinal()] = -1;
+        return deltas;
+    }
+
+    /**
+     * A move sequence with 2 bits per move, the first move in the lowest bits.
+     */
+    private static class Sequence {
+
+        private final long moves;
+        private final int length;
+        private int minX;
+        private int maxX;
+        private int minY;
+        private int maxY;
+
+        private Sequence(long moves, int length) {
+            this.moves = moves;
+            this.length = length;
+        }
+
+        private int get(int index) {
+            return (int) (moves >>> index * MOVE_BITS) & DIRECTIONS - 1;
+        }
+
+        private Sequence append(int direction) {
+            return new Sequence(moves | (long) direction << length * MOVE_BITS, length + 1);
+        }
+
+        /**
+         * @return a unique key of the suffix starting at the given index
+         */
+        private long getKey(int start) {
+            return moves >>> start * MOVE_BITS | (long) (length - start) << MAX_LENGTH * MOVE_BITS;
+        }
+
+        private boolean containsBoundingBox(Sequence other) {
+            computeBoundingBox();
+            other.computeBoundingBox();
+            return minX <= other.minX && maxX >= other.maxX && minY <= other.minY && maxY >= other.maxY;
+        }
+
+        private void computeBoundingBox() {
+            minX = 0;
+            maxX = 0;
+            minY = 0;
+            maxY = 0;
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < length; i++) {
+                x += DELTA_X[get(i)];
+                y += DELTA_Y[get(i)];
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        }
+
+        /**
+         * Applies the sequence to the board and describes the moved tiles and their positions. The board is restored
+         * afterwards.
+         */
+        private String getEffect(int[] board, int width, int center) {
+            int[] path = new int[length + 1];
+            path[0] = center;
+            for (int i = 0; i < length; i++) {
+                int direction = get(i);
+                path[i + 1] = path[i] + DELTA_X[direction] + DELTA_Y[direction] * width;
+                board[path[i]] = board[path[i + 1]];
+                board[path[i + 1]] = center;
+            }
+            int[] changed = Arrays.stream(path).distinct().filter(position -> board[position] != position).sorted()
+                    .toArray();
+            StringBuilder effect = new StringBuilder();
+            for (int position : changed) {
+                effect.append((char) position).append((char) board[position]);
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                board[path[i + 1]] = board[path[i]];
+                board[path[i]] = center;
+            }
+            return effect.toString();
+        }
+
+    }
+
+}
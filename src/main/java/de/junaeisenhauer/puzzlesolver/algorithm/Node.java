@@ -35,6 +35,16 @@ public interface Node<T> {
      */
     List<Node<T>> getChildren();
 
+    /**
+     * Generates all children like {@link #getChildren()}, but without keeping them in this node, so a search which
+     * visits the node again in later iterations does not hold the whole explored tree.
+     *
+     * @return a new list of all children nodes
+     */
+    default List<Node<T>> generateChildren() {
+        return getChildren();
+    }
+
     /**
      * Gets the heuristic estimation costs for heuristic search algorithms.
      *
@@ -49,4 +59,24 @@ public interface Node<T> {
      */
     int getCosts();
 
+    /**
+     * Checks if the goal can be reached from this node at all. Nodes which can not decide it cheaply claim to be
+     * solvable.
+     *
+     * @return if the goal is reachable from this node
+     */
+    default boolean isSolvable() {
+        return true;
+    }
+
+    /**
+     * Gets a 64 bit key of the state, e.g. for transposition tables which do not store the states themselves.
+     * Equal states have equal keys, different states should share a key as rarely as possible.
+     *
+     * @return the key of the state
+     */
+    default long getStateKey() {
+        return hashCode();
+    }
+
 }
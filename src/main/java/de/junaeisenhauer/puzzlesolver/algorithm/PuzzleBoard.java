@@ -0,0 +1,137 @@
+package de.junaeisenhauer.puzzlesolver.algorithm;
+
+import lombok.Getter;
+
+/**
+ * A mutable puzzle board for search algorithms which apply and undo moves in place instead of creating nodes.
+ * Directions are passed as the ordinal of {@link PuzzleNode.MoveDirection}, so a move is undone by moving in the
+ * {@link #opposite(int)} direction.
+ */
+public class PuzzleBoard {
+
+    private static final int DIRECTIONS = PuzzleNode.MoveDirection.values().length;
+
+    @Getter
+    private final PuzzleNode.PuzzleSize size;
+    private final int[] tiles;
+    /**
+     * The position reached from a position in a direction at index position * 4 + direction, -1 if outside the board.
+     */
+    private final int[] neighbors;
+    @Getter
+    private int spacePosition;
+
+    public PuzzleBoard(PuzzleNode node) {
+        size = node.getSize();
+        tiles = node.getState();
+        neighbors = createNeighbors(size);
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == 0) {
+                spacePosition = i;
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the board which can be changed independently.
+     *
+     * @param board the board to copy
+     */
+    public PuzzleBoard(PuzzleBoard board) {
+        size = board.size;
+        tiles = board.tiles.clone();
+        // the neighbors only depend on the size and are never changed
+        neighbors = board.neighbors;
+        spacePosition = board.spacePosition;
+    }
+
+    /**
+     * Gets the opposite direction which undoes a move.
+     *
+     * @param direction the ordinal of the move direction
+     * @return the ordinal of the opposite move direction
+     */
+    public static int opposite(int direction) {
+        // UP <-> DOWN, RIGHT <-> LEFT
+        return direction ^ 1;
+    }
+
+    public int getLength() {
+        return tiles.length;
+    }
+
+    public int getTile(int position) {
+        return tiles[position];
+    }
+
+    /**
+     * Gets the tile at each position without copying them, e.g. for a heuristic estimation.
+     *
+     * @return the tiles of the board which must not be modified
+     */
+    public int[] getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Checks if the space can be moved in the given direction.
+     *
+     * @param direction the ordinal of the move direction
+     * @return if the space stays on the board
+     */
+    public boolean canMove(int direction) {
+        return neighbors[spacePosition * DIRECTIONS + direction] != -1;
+    }
+
+    /**
+     * Gets the position next to a position in a direction.
+     *
+     * @param position  the position on the board
+     * @param direction the ordinal of the move direction
+     * @return the neighboring position, -1 if it is outside the board
+     */
+    public int getNeighbor(int position, int direction) {
+        return neighbors[position * DIRECTIONS + direction];
+    }
+
+    /**
+     * Moves the space in the given direction. The caller has to check {@link #canMove(int)} before.
+     *
+     * @param direction the ordinal of the move direction
+     * @return the tile which has been moved into the former space position
+     */
+    public int move(int direction) {
+        int targetPosition = neighbors[spacePosition * DIRECTIONS + direction];
+        int tile = tiles[targetPosition];
+        tiles[spacePosition] = tile;
+        tiles[targetPosition] = 0;
+        spacePosition = targetPosition;
+        return tile;
+    }
+
+    public boolean isGoal() {
+        for (int i = 0; i < tiles.length - 1; i++) {
+            if (tiles[i] != i + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] createNeighbors(PuzzleNode.PuzzleSize size) {
+        int width = size.getWidth();
+        int height = size.getHeight();
+        int[] neighbors = new int[width * height * DIRECTIONS];
+        for (int position = 0; position < width * height; position++) {
+            int x = position % width;
+            int y = position / width;
+            int index = position * DIRECTIONS;
+            neighbors[index + PuzzleNode.MoveDirection.UP.ordinal()] = y > 0 ? position - width : -1;
+            neighbors[index + PuzzleNode.MoveDirection.DOWN.ordinal()] = y < height - 1 ? position + width : -1;
+            neighbors[index + PuzzleNode.MoveDirection.RIGHT.ordinal()] = x < width - 1 ? position + 1 : -1;
+            neighbors[index + PuzzleNode.MoveDirection.LEFT.ordinal()] = x > 0 ? position - 1 : -1;
+        }
+        return neighbors;
+    }
+
+}
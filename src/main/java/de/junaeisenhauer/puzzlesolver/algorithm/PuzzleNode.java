@@ -1,51 +1,200 @@
 package de.junaeisenhauer.puzzlesolver.algorithm;
 
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.ManhattanDistance;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * A node for the puzzle.
+ * The state is stored bit packed with the bits needed for the largest tile, e.g. 4 bits for up to 16 and 5 bits for up
+ * to 32 positions. States which fit into 64 bits are stored in a single long, larger ones in consecutive longs where a
+ * tile may span two longs. Two nodes are equal if they have the same size and state.
  */
 public class PuzzleNode implements Node<int[]> {
 
     @Getter
     private PuzzleNode parent;
+    @Getter
     private PuzzleSize size;
     /**
      * Value of 0 represents the space in the puzzle. The algorithm considers the 0 (the space) as the moving tile.
+     * The tile at position i is stored in the bits b*i to b*i+b-1 with b bits per tile. Only used if
+     * {@link #packedStates} is null.
+     */
+    private long packedState;
+    /**
+     * Fallback for puzzles which do not fit into 64 bits, the bits of the tiles continue from one long to the next.
+     * Null if the state fits into {@link #packedState}.
      */
-    private int[] state;
+    private long[] packedStates;
+    private int spacePosition;
     @Getter
     private MoveDirection moveDirection;
+    @Getter
+    private Heuristic heuristic;
     private List<Node<int[]>> children;
     private int heuristicEstimation = -1;
-    private int costs = -1;
+    /**
+     * The number of moves from the start, one more than the costs of the parent.
+     */
+    private int costs;
 
     public PuzzleNode(PuzzleNode parent, PuzzleSize size, int[] state, MoveDirection moveDirection) {
+        this(parent, size, state, moveDirection, parent != null ? parent.heuristic : new ManhattanDistance(size));
+    }
+
+    /**
+     * Creates a puzzle node with the heuristic used for its heuristic estimation and the one of its successors.
+     *
+     * @param parent        the parent node, null for the start node
+     * @param size          the puzzle size
+     * @param state         the tile at each position, 0 represents the space
+     * @param moveDirection the direction the space has been moved from the parent, null for the start node
+     * @param heuristic     the heuristic created for the puzzle size
+     */
+    public PuzzleNode(PuzzleNode parent, PuzzleSize size, int[] state, MoveDirection moveDirection,
+                      Heuristic heuristic) {
         this.parent = parent;
         this.size = size;
-        this.state = state;
         this.moveDirection = moveDirection;
+        this.heuristic = heuristic;
+        costs = parent != null ? parent.costs + 1 : 0;
+        spacePosition = -1;
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] == 0) {
+                spacePosition = i;
+            }
+        }
+        if (spacePosition == -1) {
+            throw new IllegalStateException("Space (0) not found");
+        }
+
+        int bitsPerTile = size.getBitsPerTile();
+        if (size.isPackedInLong()) {
+            for (int i = 0; i < state.length; i++) {
+                packedState |= (long) state[i] << (i * bitsPerTile);
+            }
+        } else {
+            packedStates = new long[(state.length * bitsPerTile + Long.SIZE - 1) / Long.SIZE];
+            for (int i = 0; i < state.length; i++) {
+                toggleTile(packedStates, i, state[i], bitsPerTile);
+            }
+        }
+    }
+
+    /**
+     * Creates the goal node of a puzzle size: all tiles in ascending order followed by the space.
+     *
+     * @param size the puzzle size
+     * @return the goal node without a parent
+     */
+    public static PuzzleNode createGoal(PuzzleSize size) {
+        return createGoal(size, new ManhattanDistance(size));
+    }
+
+    /**
+     * Creates the goal node of a puzzle size: all tiles in ascending order followed by the space.
+     *
+     * @param size      the puzzle size
+     * @param heuristic the heuristic created for the puzzle size
+     * @return the goal node without a parent
+     */
+    public static PuzzleNode createGoal(PuzzleSize size, Heuristic heuristic) {
+        int length = size.getWidth() * size.getHeight();
+        int[] goalState = new int[length];
+        for (int i = 0; i < length - 1; i++) {
+            goalState[i] = i + 1;
+        }
+        goalState[length - 1] = 0;
+
+        return new PuzzleNode(null, size, goalState, null, heuristic);
+    }
+
+    private PuzzleNode(PuzzleNode parent, long packedState, long[] packedStates, int spacePosition,
+                       MoveDirection moveDirection) {
+        this.parent = parent;
+        this.size = parent.size;
+        costs = parent.costs + 1;
+        this.packedState = packedState;
+        this.packedStates = packedStates;
+        this.spacePosition = spacePosition;
+        this.moveDirection = moveDirection;
+        this.heuristic = parent.heuristic;
     }
 
     @Override
     public int[] getState() {
-        return state.clone();
+        int[] state = new int[getLength()];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = getTile(i);
+        }
+        return state;
     }
 
     @Override
     public boolean isGoal() {
-        for (int i = 0; i < state.length - 1; i++) {
-            if (state[i] != i + 1) {
+        int length = getLength();
+        if (spacePosition != length - 1) {
+            return false;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            if (getTile(i) != i + 1) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * Checks the parity of the state in linear time. Every move swaps the space with a tile, which changes the parity
+     * of the permutation and the parity of the space distance to its goal position at once. Therefore exactly the
+     * states with equal parities are solvable. A board with a single row or column only allows shifting the space, so
+     * the tiles have to be in order already.
+     */
+    @Override
+    public boolean isSolvable() {
+        int[] state = getState();
+        int width = size.getWidth();
+        if (width == 1 || size.getHeight() == 1) {
+            int expectedTile = 1;
+            for (int tile : state) {
+                if (tile != 0 && tile != expectedTile++) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // the parity of a permutation is the parity of its length minus its number of cycles
+        boolean[] visited = new boolean[state.length];
+        int cycles = 0;
+        for (int position = 0; position < state.length; position++) {
+            if (visited[position]) {
+                continue;
+            }
+            cycles++;
+            for (int cyclePosition = position; !visited[cyclePosition]; ) {
+                visited[cyclePosition] = true;
+                cyclePosition = getGoalPosition(state[cyclePosition]);
+            }
+        }
+        int transpositions = state.length - cycles;
+        int spaceGoalPosition = state.length - 1;
+        int spaceDistance = Math.abs(spacePosition % width - spaceGoalPosition % width)
+                + Math.abs(spacePosition / width - spaceGoalPosition / width);
+        return (transpositions + spaceDistance) % 2 == 0;
+    }
+
+    private int getGoalPosition(int tile) {
+        return tile == 0 ? getLength() - 1 : tile - 1;
+    }
+
     @Override
     public List<Node<int[]>> getChildren() {
         if (children != null) {
@@ -61,55 +210,162 @@ public class PuzzleNode implements Node<int[]> {
             return heuristicEstimation;
         }
 
-        // manhattan metric
-        heuristicEstimation = 0;
-        for (int i = 0; i < state.length; i++) {
-            if (state[i] == 0) {
-                continue;
+        if (parent != null && parent.heuristic == heuristic && parent.heuristicEstimation != -1) {
+            // the tile at the space position of the parent has been moved from the space position of this node
+            heuristicEstimation = heuristic.estimateMove(parent.heuristicEstimation,
+                    getTile(parent.spacePosition), spacePosition, parent.spacePosition);
+            if (heuristicEstimation != -1) {
+                return heuristicEstimation;
             }
+        }
+        heuristicEstimation = heuristic.estimate(getState());
+        return heuristicEstimation;
+    }
+
+    @Override
+    public int getCosts() {
+        return costs;
+    }
 
-            int actualX = i % size.getWidth();
-            int actualY = (i - actualX) / size.getWidth();
+    /**
+     * Gets the tile at the given position without unpacking the whole state.
+     *
+     * @param position the position on the board
+     * @return the tile at the position, 0 for the space
+     */
+    public int getTile(int position) {
+        int bitsPerTile = size.getBitsPerTile();
+        long tileMask = (1L << bitsPerTile) - 1;
+        if (packedStates == null) {
+            return (int) (packedState >>> (position * bitsPerTile) & tileMask);
+        }
+        int bit = position * bitsPerTile;
+        int word = bit / Long.SIZE;
+        int shift = bit % Long.SIZE;
+        long tile = packedStates[word] >>> shift;
+        if (shift + bitsPerTile > Long.SIZE) {
+            tile |= packedStates[word + 1] << (Long.SIZE - shift);
+        }
+        return (int) (tile & tileMask);
+    }
 
-            int goalPos = state[i] - 1;
-            int goalX = goalPos % size.getWidth();
-            int goalY = (goalPos - goalX) / size.getWidth();
+    /**
+     * Gets the child which is reached by moving the space in the given direction. In contrast to
+     * {@link #getChildren()} the child is not cached and there is no cycle check.
+     *
+     * @param direction the direction to move the space
+     * @return the child node or null if the space can not be moved in this direction
+     */
+    public PuzzleNode getChild(MoveDirection direction) {
+        if (!canMove(direction)) {
+            return null;
+        }
+        int width = size.getWidth();
+        switch (direction) {
+            case UP:
+                return move(spacePosition - width, direction);
+            case DOWN:
+                return move(spacePosition + width, direction);
+            case RIGHT:
+                return move(spacePosition + 1, direction);
+            default:
+                return move(spacePosition - 1, direction);
+        }
+    }
 
-            heuristicEstimation = Math.abs(goalX - actualX) + Math.abs(goalY - actualY);
+    /**
+     * Checks if the space can be moved in the given direction without leaving the board.
+     *
+     * @param direction the direction to move the space
+     * @return if the space can be moved
+     */
+    public boolean canMove(MoveDirection direction) {
+        int width = size.getWidth();
+        switch (direction) {
+            case UP:
+                return spacePosition >= width;
+            case DOWN:
+                return spacePosition < width * (size.getHeight() - 1);
+            case RIGHT:
+                return spacePosition % width != width - 1;
+            default:
+                return spacePosition % width != 0;
         }
+    }
 
-        return heuristicEstimation;
+    /**
+     * Appends the path of a node found by a backward search from the goal. The moves from the other node back to its
+     * start are applied in reverse to this node, the parents of the result lead back to the start of this node.
+     *
+     * @param backwardNode a node with the same state as this node, its start is the goal
+     * @return the goal node reached from the start of this node
+     */
+    public PuzzleNode appendBackwardPath(PuzzleNode backwardNode) {
+        PuzzleNode result = this;
+        while (backwardNode.parent != null) {
+            result = result.getChild(backwardNode.moveDirection.getOpposite());
+            backwardNode = backwardNode.parent;
+        }
+        return result;
     }
 
     @Override
-    public int getCosts() {
-        if (costs != -1) {
-            return costs;
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
         }
-        costs = 0;
-        Node<?> parent = this.parent;
-        while (parent != null) {
-            costs++;
-            parent = parent.getParent();
+        if (!(o instanceof PuzzleNode)) {
+            return false;
         }
-        return costs;
+        PuzzleNode other = (PuzzleNode) o;
+        return packedState == other.packedState
+                && Arrays.equals(packedStates, other.packedStates)
+                && size.equals(other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        if (packedStates == null) {
+            return Long.hashCode(packedState);
+        }
+        return Arrays.hashCode(packedStates);
+    }
+
+    /**
+     * Gets the packed state of puzzles which fit into 64 bits as key, e.g. up to 16 tiles, which is unique for them.
+     * Larger puzzles use a 64 bit hash of their packed state.
+     */
+    @Override
+    public long getStateKey() {
+        if (packedStates == null) {
+            return packedState;
+        }
+        long key = size.hashCode();
+        for (long word : packedStates) {
+            key = (key ^ word) * 0x9E3779B97F4A7C15L;
+            key ^= key >>> 32;
+        }
+        return key;
     }
 
-    private List<Node<int[]>> generateChildren() {
-        List<Node<int[]>> children = new ArrayList<>();
+    private int getLength() {
+        return size.getWidth() * size.getHeight();
+    }
 
-        int spacePosition = getSpacePosition();
+    @Override
+    public List<Node<int[]>> generateChildren() {
+        List<Node<int[]>> children = new ArrayList<>(4);
 
-        Node<int[]> up = moveUp(spacePosition);
+        Node<int[]> up = moveUp();
         addChildIfValid(children, up);
 
-        Node<int[]> down = moveDown(spacePosition);
+        Node<int[]> down = moveDown();
         addChildIfValid(children, down);
 
-        Node<int[]> right = moveRight(spacePosition);
+        Node<int[]> right = moveRight();
         addChildIfValid(children, right);
 
-        Node<int[]> left = moveLeft(spacePosition);
+        Node<int[]> left = moveLeft();
         addChildIfValid(children, left);
 
         return children;
@@ -121,16 +377,7 @@ public class PuzzleNode implements Node<int[]> {
         }
     }
 
-    private int getSpacePosition() {
-        for (int i = 0; i < state.length; i++) {
-            if (state[i] == 0) {
-                return i;
-            }
-        }
-        throw new IllegalStateException("Space (0) not found");
-    }
-
-    private Node<int[]> moveUp(int spacePosition) {
+    private Node<int[]> moveUp() {
         if (moveDirection == MoveDirection.DOWN) {
             // cycle check of length 2
             return null;
@@ -139,12 +386,10 @@ public class PuzzleNode implements Node<int[]> {
             // can not move up
             return null;
         }
-        int[] upState = state.clone();
-        swap(upState, spacePosition, spacePosition - size.getWidth());
-        return new PuzzleNode(this, size, upState, MoveDirection.UP);
+        return move(spacePosition - size.getWidth(), MoveDirection.UP);
     }
 
-    private Node<int[]> moveDown(int spacePosition) {
+    private Node<int[]> moveDown() {
         if (moveDirection == MoveDirection.UP) {
             // cycle check of length 2
             return null;
@@ -153,12 +398,10 @@ public class PuzzleNode implements Node<int[]> {
             // can not move down
             return null;
         }
-        int[] downState = state.clone();
-        swap(downState, spacePosition, spacePosition + size.getWidth());
-        return new PuzzleNode(this, size, downState, MoveDirection.DOWN);
+        return move(spacePosition + size.getWidth(), MoveDirection.DOWN);
     }
 
-    private Node<int[]> moveRight(int spacePosition) {
+    private Node<int[]> moveRight() {
         if (moveDirection == MoveDirection.LEFT) {
             // cycle check of length 2
             return null;
@@ -167,12 +410,10 @@ public class PuzzleNode implements Node<int[]> {
             // can not move right
             return null;
         }
-        int[] leftState = state.clone();
-        swap(leftState, spacePosition, spacePosition + 1);
-        return new PuzzleNode(this, size, leftState, MoveDirection.RIGHT);
+        return move(spacePosition + 1, MoveDirection.RIGHT);
     }
 
-    private Node<int[]> moveLeft(int spacePosition) {
+    private Node<int[]> moveLeft() {
         if (moveDirection == MoveDirection.RIGHT) {
             // cycle check of length 2
             return null;
@@ -181,30 +422,118 @@ public class PuzzleNode implements Node<int[]> {
             // can not move left
             return null;
         }
-        int[] rightState = state.clone();
-        swap(rightState, spacePosition, spacePosition - 1);
-        return new PuzzleNode(this, size, rightState, MoveDirection.LEFT);
+        return move(spacePosition - 1, MoveDirection.LEFT);
+    }
+
+    /**
+     * Moves the space to the target position by moving the tile of the target position to the current space position.
+     * The space has the value 0, so only the tile bits have to be moved.
+     */
+    private PuzzleNode move(int targetPosition, MoveDirection direction) {
+        long tile = getTile(targetPosition);
+        int bitsPerTile = size.getBitsPerTile();
+        if (packedStates == null) {
+            // toggling the tile bits clears them at the target and sets them at the space
+            long movedState = packedState ^ tile << (targetPosition * bitsPerTile)
+                    ^ tile << (spacePosition * bitsPerTile);
+            return new PuzzleNode(this, movedState, null, targetPosition, direction);
+        }
+
+        long[] movedStates = packedStates.clone();
+        toggleTile(movedStates, targetPosition, tile, bitsPerTile);
+        toggleTile(movedStates, spacePosition, tile, bitsPerTile);
+        return new PuzzleNode(this, 0, movedStates, targetPosition, direction);
     }
 
-    private void swap(int[] array, int pos1, int pos2) {
-        // Bitwise xor swap
-        array[pos1] = array[pos1] ^ array[pos2];
-        array[pos2] = array[pos1] ^ array[pos2];
-        array[pos1] = array[pos1] ^ array[pos2];
+    /**
+     * Toggles the bits of a tile value at a position of a multi long state.
+     */
+    private static void toggleTile(long[] packedStates, int position, long tile, int bitsPerTile) {
+        int bit = position * bitsPerTile;
+        int word = bit / Long.SIZE;
+        int shift = bit % Long.SIZE;
+        packedStates[word] ^= tile << shift;
+        if (shift + bitsPerTile > Long.SIZE) {
+            packedStates[word + 1] ^= tile >>> (Long.SIZE - shift);
+        }
     }
 
     public enum MoveDirection {
         UP,
         DOWN,
         RIGHT,
-        LEFT
+        LEFT;
+
+        /**
+         * Gets the direction which undoes a move in this direction.
+         *
+         * @return the opposite direction
+         */
+        public MoveDirection getOpposite() {
+            switch (this) {
+                case UP:
+                    return DOWN;
+                case DOWN:
+                    return UP;
+                case RIGHT:
+                    return LEFT;
+                default:
+                    return RIGHT;
+            }
+        }
     }
 
     @AllArgsConstructor
+    @EqualsAndHashCode
     @Getter
     public static class PuzzleSize {
         private int width;
         private int height;
+
+        /**
+         * Parses a size of the form {@code <width>x<height>}, or a single number for a square size.
+         *
+         * @param size the text of the size
+         * @return the puzzle size
+         * @throws IllegalArgumentException if the text is no valid size
+         */
+        public static PuzzleSize parse(String size) {
+            String[] dimensions = size.trim().split("x");
+            try {
+                int width = Integer.parseInt(dimensions[0]);
+                int height = dimensions.length == 1 ? width : Integer.parseInt(dimensions[1]);
+                if (dimensions.length > 2 || width < 1 || height < 1 || width * height < 2) {
+                    throw new IllegalArgumentException("Invalid size " + size);
+                }
+                return new PuzzleSize(width, height);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid size " + size, e);
+            }
+        }
+
+        /**
+         * Gets the number of bits needed for the largest tile of a packed state.
+         *
+         * @return the number of bits per tile
+         */
+        public int getBitsPerTile() {
+            return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(width * height - 1));
+        }
+
+        /**
+         * Checks if the packed states of this size fit into a single long, so the {@link PuzzleNode#getStateKey() key}
+         * of a node is its packed state.
+         *
+         * @return if a state fits into 64 bits
+         */
+        public boolean isPackedInLong() {
+            return width * height * getBitsPerTile() <= Long.SIZE;
+        }
+
+        @Override
+        public String toString() {
+            return width + "x" + height;
+        }
     }
 
 }
@@ -0,0 +1,174 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sums up the values of pattern databases with disjoint patterns. Each pattern database only counts the moves of
+ * its own tiles, so the sum never overestimates the actual costs.
+ */
+public class AdditivePatternDatabase implements Heuristic {
+
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".puzzlesolver", "pdb");
+
+    /**
+     * The 4-4 partition of the 3x3 puzzle.
+     */
+    private static final int[][] PARTITION_3X3 = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+    /**
+     * The 6-6-3 partition of the 4x4 puzzle. The larger 7-8 partition would need a table of 16^8 bytes with the
+     * index of the pattern databases.
+     */
+    private static final int[][] PARTITION_4X4 = {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+    /**
+     * Upper limit of the table size of a single pattern database when a partition is created for other sizes.
+     */
+    private static final long MAX_TABLE_SIZE = 1 << 24;
+
+    private final PatternDatabase[] patternDatabases;
+    /**
+     * The index of the pattern database of each tile. Tiles of no pattern have the multiplier 0 in any database.
+     */
+    private final int[] patternDatabaseOfTile;
+
+    public AdditivePatternDatabase(PatternDatabase... patternDatabases) {
+        Set<Integer> tiles = new HashSet<>();
+        for (PatternDatabase patternDatabase : patternDatabases) {
+            for (int tile : patternDatabase.getPattern()) {
+                if (!tiles.add(tile)) {
+                    throw new IllegalArgumentException("Tile " + tile + " is part of more than one pattern");
+                }
+            }
+        }
+        this.patternDatabases = patternDatabases;
+        patternDatabaseOfTile = new int[tiles.stream().mapToInt(Integer::intValue).max().orElse(0) + 1];
+        for (int i = 0; i < patternDatabases.length; i++) {
+            for (int tile : patternDatabases[i].getPattern()) {
+                patternDatabaseOfTile[tile] = i;
+            }
+        }
+    }
+
+    /**
+     * Loads the pattern databases of the default partition from the directory, missing ones are built and stored.
+     *
+     * @param size      the puzzle size
+     * @param directory the directory of the pattern database files
+     * @return the additive pattern database
+     * @throws IOException if a file can not be read or written
+     * @see PatternDatabase#load(PuzzleNode.PuzzleSize, int[], Path)
+     */
+    public static AdditivePatternDatabase load(PuzzleNode.PuzzleSize size, Path directory) throws IOException {
+        return load(size, createPartition(size), directory);
+    }
+
+    /**
+     * Loads the pattern databases of the partition from the directory, missing ones are built and stored.
+     *
+     * @param size      the puzzle size
+     * @param partition the disjoint patterns
+     * @param directory the directory of the pattern database files
+     * @return the additive pattern database
+     * @throws IOException if a file can not be read or written
+     * @see PatternDatabase#load(PuzzleNode.PuzzleSize, int[], Path)
+     */
+    public static AdditivePatternDatabase load(PuzzleNode.PuzzleSize size, int[][] partition, Path directory)
+            throws IOException {
+        PatternDatabase[] patternDatabases = new PatternDatabase[partition.length];
+        for (int i = 0; i < partition.length; i++) {
+            patternDatabases[i] = PatternDatabase.load(size, partition[i], directory);
+        }
+        return new AdditivePatternDatabase(patternDatabases);
+    }
+
+    /**
+     * Creates the default partition of the tiles. The 3x3 and 4x4 puzzle use the well known partitions, other sizes
+     * are split row by row into patterns as large as possible with a table of at most 16 MB.
+     *
+     * @param size the puzzle size
+     * @return the disjoint patterns which cover all tiles
+     */
+    public static int[][] createPartition(PuzzleNode.PuzzleSize size) {
+        int width = size.getWidth();
+        int height = size.getHeight();
+        if (width == 3 && height == 3) {
+            return PARTITION_3X3;
+        }
+        if (width == 4 && height == 4) {
+            return PARTITION_4X4;
+        }
+
+        int length = width * height;
+        int patternLength = 0;
+        for (long tableSize = length; tableSize <= MAX_TABLE_SIZE; tableSize *= length) {
+            patternLength++;
+        }
+        patternLength = Math.max(1, patternLength);
+
+        int tiles = length - 1;
+        int[][] partition = new int[(tiles + patternLength - 1) / patternLength][];
+        for (int i = 0; i < partition.length; i++) {
+            int first = i * patternLength + 1;
+            int[] pattern = new int[Math.min(patternLength, tiles - first + 1)];
+            for (int j = 0; j < pattern.length; j++) {
+                pattern[j] = first + j;
+            }
+            partition[i] = pattern;
+        }
+        return partition;
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int estimation = 0;
+        for (PatternDatabase patternDatabase : patternDatabases) {
+            estimation += patternDatabase.lookup(tiles);
+        }
+        return estimation;
+    }
+
+    /**
+     * Keeps the table index and value of each pattern database, so a move only changes the index of the pattern
+     * database of the moved tile by the multiplier of the tile and needs a single lookup.
+     */
+    @Override
+    public IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        return new IncrementalEstimation() {
+            private final int[] indexes = new int[patternDatabases.length];
+            private final int[] values = new int[patternDatabases.length];
+            private int estimation;
+
+            {
+                for (int i = 0; i < patternDatabases.length; i++) {
+                    indexes[i] = patternDatabases[i].getIndex(tiles);
+                    values[i] = patternDatabases[i].lookupIndex(indexes[i]);
+                    estimation += values[i];
+                }
+            }
+
+            @Override
+            public int getEstimation() {
+                return estimation;
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                if (tile >= patternDatabaseOfTile.length) {
+                    // not part of any pattern
+                    return;
+                }
+                int patternDatabase = patternDatabaseOfTile[tile];
+                indexes[patternDatabase] += patternDatabases[patternDatabase].getMultiplier(tile) * (to - from);
+                int value = patternDatabases[patternDatabase].lookupIndex(indexes[patternDatabase]);
+                estimation += value - values[patternDatabase];
+                values[patternDatabase] = value;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,56 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+/**
+ * The interface to provide a heuristic estimation of the costs from a puzzle state to the goal.
+ * An instance is bound to the puzzle size it has been created for.
+ * -> Strategy design pattern
+ */
+public interface Heuristic {
+
+    /**
+     * Estimates the costs from a state to the goal. The estimation must never overestimate the actual costs,
+     * otherwise the heuristic search algorithms do not find optimal solutions anymore.
+     *
+     * @param tiles the tile at each position of the state, 0 represents the space
+     * @return the estimated costs
+     */
+    int estimate(int[] tiles);
+
+    /**
+     * Estimates the costs of a state from the estimation of the state it has been reached from by moving a single tile,
+     * if this is possible without the other tiles, e.g. if the estimation is the sum of the estimations of each tile.
+     *
+     * @param estimation the estimation of the state before the move
+     * @param tile       the moved tile
+     * @param from       the position of the tile before the move
+     * @param to         the position of the tile after the move
+     * @return the estimation of the state after the move, -1 if it has to be estimated from all tiles
+     */
+    default int estimateMove(int estimation, int tile, int from, int to) {
+        return -1;
+    }
+
+    /**
+     * Creates the incremental estimation of a board which is changed in place. The default implementation estimates
+     * all tiles after each move.
+     *
+     * @param tiles the tiles of the board, which are read again after each move
+     * @return the estimation following the moves of the board
+     */
+    default IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        return new IncrementalEstimation() {
+            private int estimation = estimate(tiles);
+
+            @Override
+            public int getEstimation() {
+                return estimation;
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                estimation = estimate(tiles);
+            }
+        };
+    }
+
+}
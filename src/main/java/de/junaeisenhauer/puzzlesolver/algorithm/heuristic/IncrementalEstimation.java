@@ -0,0 +1,24 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+/**
+ * The estimation of a board which is changed in place, e.g. by a depth search. Only a single tile changes its
+ * position with each move, so the estimation is updated from the moved tile instead of estimating all tiles again.
+ * A move is undone by moving the tile back.
+ */
+public interface IncrementalEstimation {
+
+    /**
+     * @return the estimated costs of the current board
+     */
+    int getEstimation();
+
+    /**
+     * Updates the estimation after a tile has been moved to the neighboring space position.
+     *
+     * @param tile the moved tile
+     * @param from the position of the tile before the move, the space position after the move
+     * @param to   the position of the tile after the move
+     */
+    void move(int tile, int from, int to);
+
+}
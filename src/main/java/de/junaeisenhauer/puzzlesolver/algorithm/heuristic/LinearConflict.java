@@ -0,0 +1,277 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+/**
+ * The manhattan distance plus the linear conflicts: two tiles in their goal row whose goal positions are in reverse
+ * order can not pass each other in the row, so one of them has to leave the row and come back, which costs two moves
+ * the manhattan distance does not count. For each row the minimum number of tiles which have to leave the row is the
+ * number of tiles in their goal row minus the longest sequence of them in goal order. The same holds for the columns.
+ * Row conflicts only add vertical moves and column conflicts only horizontal moves, so they can be added.
+ * <p>
+ * Optionally the estimation is enhanced for boards of at least 3x3 by two further deductions, which only count moves
+ * of tiles the linear conflicts can not have counted already:
+ * <ul>
+ * <li>Corner tiles: if neither the tile of a corner nor the space is in the corner, a tile next to the corner which is
+ * in its goal position has to move away and back, otherwise the space and after it the corner tile can not get into
+ * the corner. It is not counted if the tile is part of a linear conflict. A tile next to two corners is counted
+ * once.</li>
+ * <li>Last moves: the last move brings either the tile left of the space goal position in from the last column or the
+ * tile above it in from the last row. If the left tile is neither in the last column nor in its goal column and the
+ * upper tile is neither in the last row nor in its goal row, one of them needs two moves more.</li>
+ * </ul>
+ */
+public class LinearConflict implements Heuristic {
+
+    private final int width;
+    private final int height;
+    private final int length;
+    private final boolean enhanced;
+    private final ManhattanDistance manhattanDistance;
+
+    /**
+     * Creates the linear conflict heuristic without the corner tiles and last moves.
+     *
+     * @param size the puzzle size
+     */
+    public LinearConflict(PuzzleNode.PuzzleSize size) {
+        this(size, false);
+    }
+
+    /**
+     * @param size     the puzzle size
+     * @param enhanced if the corner tiles and last moves are added for boards of at least 3x3
+     */
+    public LinearConflict(PuzzleNode.PuzzleSize size, boolean enhanced) {
+        width = size.getWidth();
+        height = size.getHeight();
+        length = width * height;
+        this.enhanced = enhanced && width >= 3 && height >= 3;
+        manhattanDistance = new ManhattanDistance(size);
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int[] goalIndexes = new int[2 * Math.max(width, height)];
+        int conflicts = 0;
+        for (int row = 0; row < height; row++) {
+            conflicts += getRowConflicts(tiles, row, goalIndexes);
+        }
+        for (int column = 0; column < width; column++) {
+            conflicts += getColumnConflicts(tiles, column, goalIndexes);
+        }
+        return manhattanDistance.estimate(tiles) + 2 * conflicts + getEnhancement(tiles);
+    }
+
+    /**
+     * Keeps the manhattan distance and the conflicts of each line. A vertical move only changes the tiles of the two
+     * rows involved, the order of the tiles in the column stays the same, so only the conflicts of these rows are
+     * counted again. The same holds for horizontal moves and columns.
+     */
+    @Override
+    public IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        return new IncrementalEstimation() {
+            private final int[] goalIndexes = new int[2 * Math.max(width, height)];
+            private final int[] rowConflicts = new int[height];
+            private final int[] columnConflicts = new int[width];
+            private int distance = manhattanDistance.estimate(tiles);
+            private int conflicts;
+            private int estimation;
+
+            {
+                for (int row = 0; row < height; row++) {
+                    rowConflicts[row] = getRowConflicts(tiles, row, goalIndexes);
+                    conflicts += rowConflicts[row];
+                }
+                for (int column = 0; column < width; column++) {
+                    columnConflicts[column] = getColumnConflicts(tiles, column, goalIndexes);
+                    conflicts += columnConflicts[column];
+                }
+                estimation = distance + 2 * conflicts + getEnhancement(tiles);
+            }
+
+            @Override
+            public int getEstimation() {
+                return estimation;
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                distance = manhattanDistance.estimateMove(distance, tile, from, to);
+                if (from / width == to / width) {
+                    updateColumn(from % width);
+                    updateColumn(to % width);
+                } else {
+                    updateRow(from / width);
+                    updateRow(to / width);
+                }
+                estimation = distance + 2 * conflicts + getEnhancement(tiles);
+            }
+
+            private void updateRow(int row) {
+                int rowConflict = getRowConflicts(tiles, row, goalIndexes);
+                conflicts += rowConflict - rowConflicts[row];
+                rowConflicts[row] = rowConflict;
+            }
+
+            private void updateColumn(int column) {
+                int columnConflict = getColumnConflicts(tiles, column, goalIndexes);
+                conflicts += columnConflict - columnConflicts[column];
+                columnConflicts[column] = columnConflict;
+            }
+        };
+    }
+
+    /**
+     * @return the minimum number of tiles which have to leave the row, because they are in linear conflict
+     */
+    private int getRowConflicts(int[] tiles, int row, int[] goalIndexes) {
+        int count = 0;
+        for (int position = row * width; position < (row + 1) * width; position++) {
+            int tile = tiles[position];
+            if (tile != 0 && (tile - 1) / width == row) {
+                goalIndexes[count++] = (tile - 1) % width;
+            }
+        }
+        return count - getLongestIncreasingSequence(goalIndexes, count);
+    }
+
+    /**
+     * @return the minimum number of tiles which have to leave the column, because they are in linear conflict
+     */
+    private int getColumnConflicts(int[] tiles, int column, int[] goalIndexes) {
+        int count = 0;
+        for (int position = column; position < length; position += width) {
+            int tile = tiles[position];
+            if (tile != 0 && (tile - 1) % width == column) {
+                goalIndexes[count++] = (tile - 1) / width;
+            }
+        }
+        return count - getLongestIncreasingSequence(goalIndexes, count);
+    }
+
+    /**
+     * Patience sorting: the smallest last value of an increasing sequence of each length is kept at the end of the
+     * values, behind the first count values. The lines are short, so the position is searched linearly.
+     *
+     * @param values the values followed by at least count unused elements
+     */
+    private static int getLongestIncreasingSequence(int[] values, int count) {
+        int longest = 0;
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            int length = 0;
+            while (length < longest && values[count + length] < value) {
+                length++;
+            }
+            values[count + length] = value;
+            if (length == longest) {
+                longest++;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * @return the moves of the corner tiles and last moves deductions, 0 if not enhanced
+     */
+    private int getEnhancement(int[] tiles) {
+        if (!enhanced) {
+            return 0;
+        }
+        int enhancement = 0;
+
+        // corner tiles, the neighbors of the top left, top right and bottom left corner
+        int bottomLeft = length - width;
+        boolean topLeftMissing = isCornerMissing(tiles, 0);
+        boolean topRightMissing = isCornerMissing(tiles, width - 1);
+        boolean bottomLeftMissing = isCornerMissing(tiles, bottomLeft);
+        int[] neighbors = {
+                topLeftMissing ? 1 : -1,
+                topLeftMissing ? width : -1,
+                topRightMissing ? width - 2 : -1,
+                topRightMissing ? 2 * width - 1 : -1,
+                bottomLeftMissing ? bottomLeft - width : -1,
+                bottomLeftMissing ? bottomLeft + 1 : -1};
+        for (int i = 0; i < neighbors.length; i++) {
+            int neighbor = neighbors[i];
+            if (neighbor == -1 || tiles[neighbor] != neighbor + 1 || isCountedBefore(neighbors, i)
+                    || isInRowConflict(tiles, neighbor) || isInColumnConflict(tiles, neighbor)) {
+                continue;
+            }
+            enhancement += 2;
+        }
+
+        // last moves
+        int leftTile = length - 1;
+        int upperTile = length - width;
+        int leftColumn = -1;
+        int upperRow = -1;
+        for (int position = 0; position < length; position++) {
+            if (tiles[position] == leftTile) {
+                leftColumn = position % width;
+            } else if (tiles[position] == upperTile) {
+                upperRow = position / width;
+            }
+        }
+        if (leftColumn < width - 2 && upperRow < height - 2) {
+            enhancement += 2;
+        }
+        return enhancement;
+    }
+
+    /**
+     * @return if the tile of the corner is not in place and the space is not in the corner either, otherwise the
+     * corner tile may move in next to a tile in its goal position
+     */
+    private static boolean isCornerMissing(int[] tiles, int corner) {
+        return tiles[corner] != corner + 1 && tiles[corner] != 0;
+    }
+
+    private static boolean isCountedBefore(int[] neighbors, int index) {
+        for (int i = 0; i < index; i++) {
+            if (neighbors[i] == neighbors[index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return if the tile at the position is in its goal row together with a tile of the row in reverse goal order
+     */
+    private boolean isInRowConflict(int[] tiles, int position) {
+        int row = position / width;
+        int goalColumn = (tiles[position] - 1) % width;
+        for (int other = row * width; other < (row + 1) * width; other++) {
+            int tile = tiles[other];
+            if (other == position || tile == 0 || (tile - 1) / width != row) {
+                continue;
+            }
+            if (other < position == (tile - 1) % width > goalColumn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return if the tile at the position is in its goal column together with a tile of the column in reverse goal
+     * order
+     */
+    private boolean isInColumnConflict(int[] tiles, int position) {
+        int column = position % width;
+        int goalRow = (tiles[position] - 1) / width;
+        for (int other = column; other < length; other += width) {
+            int tile = tiles[other];
+            if (other == position || tile == 0 || (tile - 1) % width != column) {
+                continue;
+            }
+            if (other < position == (tile - 1) / width > goalRow) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,69 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+/**
+ * The manhattan metric sums up the horizontal and vertical distance of each tile to its goal position.
+ * The distances are looked up in a table of each tile and position, so a move changes the estimation by the difference
+ * of two table entries.
+ */
+public class ManhattanDistance implements Heuristic {
+
+    private final int length;
+    /**
+     * Distance of a tile at a position at index tile * length + position.
+     */
+    private final int[] distances;
+
+    public ManhattanDistance(PuzzleNode.PuzzleSize size) {
+        int width = size.getWidth();
+        length = width * size.getHeight();
+        distances = new int[length * length];
+        // tile 0 is the space and keeps the distance 0
+        for (int tile = 1; tile < length; tile++) {
+            int goalX = (tile - 1) % width;
+            int goalY = (tile - 1) / width;
+            for (int position = 0; position < length; position++) {
+                int x = position % width;
+                int y = position / width;
+                distances[tile * length + position] = Math.abs(goalX - x) + Math.abs(goalY - y);
+            }
+        }
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int estimation = 0;
+        for (int position = 0; position < length; position++) {
+            estimation += distances[tiles[position] * length + position];
+        }
+        return estimation;
+    }
+
+    /**
+     * Only the distance of the moved tile changes, so the estimation changes by its difference.
+     */
+    @Override
+    public int estimateMove(int estimation, int tile, int from, int to) {
+        int index = tile * length;
+        return estimation + distances[index + to] - distances[index + from];
+    }
+
+    @Override
+    public IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        return new IncrementalEstimation() {
+            private int estimation = estimate(tiles);
+
+            @Override
+            public int getEstimation() {
+                return estimation;
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                estimation = estimateMove(estimation, tile, from, to);
+            }
+        };
+    }
+
+}
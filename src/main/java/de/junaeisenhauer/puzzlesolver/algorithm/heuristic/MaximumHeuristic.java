@@ -0,0 +1,52 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+/**
+ * Combines heuristics by taking the maximum of their estimations. The maximum of estimations which never overestimate
+ * the costs never overestimates them either, so heuristics which are strong on different states can be combined.
+ */
+public class MaximumHeuristic implements Heuristic {
+
+    private final Heuristic[] heuristics;
+
+    public MaximumHeuristic(Heuristic... heuristics) {
+        if (heuristics.length == 0) {
+            throw new IllegalArgumentException("At least one heuristic is required");
+        }
+        this.heuristics = heuristics;
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int estimation = 0;
+        for (Heuristic heuristic : heuristics) {
+            estimation = Math.max(estimation, heuristic.estimate(tiles));
+        }
+        return estimation;
+    }
+
+    @Override
+    public IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        IncrementalEstimation[] estimations = new IncrementalEstimation[heuristics.length];
+        for (int i = 0; i < heuristics.length; i++) {
+            estimations[i] = heuristics[i].createIncrementalEstimation(tiles);
+        }
+        return new IncrementalEstimation() {
+            @Override
+            public int getEstimation() {
+                int estimation = 0;
+                for (IncrementalEstimation incrementalEstimation : estimations) {
+                    estimation = Math.max(estimation, incrementalEstimation.getEstimation());
+                }
+                return estimation;
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                for (IncrementalEstimation incrementalEstimation : estimations) {
+                    incrementalEstimation.move(tile, from, to);
+                }
+            }
+        };
+    }
+
+}
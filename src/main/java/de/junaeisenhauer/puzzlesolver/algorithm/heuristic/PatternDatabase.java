@@ -0,0 +1,297 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * A pattern database stores the exact number of moves the tiles of a pattern need to reach their goal positions for
+ * every placement of these tiles, while all other tiles are indistinguishable. Only moves of pattern tiles are
+ * counted, so the values of disjoint patterns can be added.
+ * The table is indexed by the sum of position * length^slot over the tiles of the pattern, one byte per entry. It is
+ * built by a breadth search backwards from the goal and can be stored in a file which is memory mapped when loaded.
+ */
+public class PatternDatabase {
+
+    private static final byte UNKNOWN = -1;
+
+    @Getter
+    private final int[] pattern;
+    private final int length;
+    /**
+     * The factor of the position of each tile in the table index, 0 for the space and tiles not in the pattern.
+     */
+    private final int[] tileMultipliers;
+    private final ByteBuffer table;
+
+    private PatternDatabase(PuzzleNode.PuzzleSize size, int[] pattern, ByteBuffer table) {
+        this.pattern = pattern.clone();
+        this.table = table;
+        length = size.getWidth() * size.getHeight();
+        tileMultipliers = new int[length];
+        int multiplier = 1;
+        for (int tile : pattern) {
+            tileMultipliers[tile] = multiplier;
+            multiplier *= length;
+        }
+    }
+
+    /**
+     * Builds the pattern database in memory.
+     *
+     * @param size    the puzzle size
+     * @param pattern the tiles of the pattern
+     * @return the pattern database
+     */
+    public static PatternDatabase build(PuzzleNode.PuzzleSize size, int[] pattern) {
+        return new PatternDatabase(size, pattern, ByteBuffer.wrap(new Builder(size, pattern).build()));
+    }
+
+    /**
+     * Loads the pattern database from its file in the directory. If the file does not exist, the pattern database is
+     * built and stored in the directory first. The file is memory mapped, so the table is not held on the heap.
+     *
+     * @param size      the puzzle size
+     * @param pattern   the tiles of the pattern
+     * @param directory the directory of the pattern database files
+     * @return the pattern database
+     * @throws IOException if the file can not be read or written
+     */
+    public static PatternDatabase load(PuzzleNode.PuzzleSize size, int[] pattern, Path directory) throws IOException {
+        Path file = directory.resolve(getFileName(size, pattern));
+        long tableSize = getTableSize(size, pattern);
+        if (!Files.exists(file) || Files.size(file) != tableSize) {
+            byte[] table = new Builder(size, pattern).build();
+            Files.createDirectories(directory);
+            // write to a temporary file first, so an interrupted write does not leave a broken file behind
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(table);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, tableSize);
+            return new PatternDatabase(size, pattern, table);
+        }
+    }
+
+    /**
+     * Looks up the number of moves of the pattern tiles.
+     *
+     * @param tiles the tile at each position of the state, 0 represents the space
+     * @return the number of moves of the pattern tiles to their goal positions
+     */
+    public int lookup(int[] tiles) {
+        return lookupIndex(getIndex(tiles));
+    }
+
+    /**
+     * Gets the table index of a state. A move of a pattern tile changes the index by the
+     * {@link #getMultiplier(int) multiplier} of the tile times the change of its position, other moves keep it.
+     *
+     * @param tiles the tile at each position of the state, 0 represents the space
+     * @return the table index
+     */
+    public int getIndex(int[] tiles) {
+        int index = 0;
+        for (int position = 0; position < length; position++) {
+            index += tileMultipliers[tiles[position]] * position;
+        }
+        return index;
+    }
+
+    /**
+     * @param tile a tile of the puzzle
+     * @return the factor of the position of the tile in the table index, 0 if the tile is not in the pattern
+     */
+    public int getMultiplier(int tile) {
+        return tileMultipliers[tile];
+    }
+
+    /**
+     * @param index the table index of a state
+     * @return the number of moves of the pattern tiles to their goal positions
+     */
+    public int lookupIndex(int index) {
+        return table.get(index);
+    }
+
+    private static String getFileName(PuzzleNode.PuzzleSize size, int[] pattern) {
+        String tiles = Arrays.stream(pattern).mapToObj(Integer::toString).collect(Collectors.joining("-"));
+        return "pdb-" + size.getWidth() + "x" + size.getHeight() + "-" + tiles + ".bin";
+    }
+
+    private static long getTableSize(PuzzleNode.PuzzleSize size, int[] pattern) {
+        long tableSize = 1;
+        for (int i = 0; i < pattern.length; i++) {
+            tableSize *= size.getWidth() * size.getHeight();
+        }
+        return tableSize;
+    }
+
+    /**
+     * Breadth search backwards from the goal over the placements of the pattern tiles. The space is represented by
+     * the region of free positions it can reach without moving a pattern tile, identified by the lowest position of
+     * the region. Moving the space within its region costs nothing, moving a pattern tile costs one move.
+     */
+    private static class Builder {
+
+        private final int width;
+        private final int length;
+        private final int[] pattern;
+        private final int[] multipliers;
+        private final long board;
+        private final long notLeftColumn;
+        private final long notRightColumn;
+        /**
+         * Bit mask of the neighbor positions of each position.
+         */
+        private final long[] neighbors;
+
+        private Builder(PuzzleNode.PuzzleSize size, int[] pattern) {
+            width = size.getWidth();
+            length = width * size.getHeight();
+            this.pattern = pattern;
+            if (length > Long.SIZE) {
+                throw new IllegalArgumentException("Pattern databases support at most " + Long.SIZE + " positions");
+            }
+            if (getTableSize(size, pattern) * length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Pattern " + Arrays.toString(pattern) + " is too large");
+            }
+
+            multipliers = new int[pattern.length];
+            int multiplier = 1;
+            for (int slot = 0; slot < pattern.length; slot++) {
+                multipliers[slot] = multiplier;
+                multiplier *= length;
+            }
+
+            board = length == Long.SIZE ? -1L : (1L << length) - 1;
+            long leftColumn = 0;
+            long rightColumn = 0;
+            for (int y = 0; y < length / width; y++) {
+                leftColumn |= 1L << (y * width);
+                rightColumn |= 1L << (y * width + width - 1);
+            }
+            notLeftColumn = board & ~leftColumn;
+            notRightColumn = board & ~rightColumn;
+
+            neighbors = new long[length];
+            for (int position = 0; position < length; position++) {
+                neighbors[position] = grow(1L << position) & ~(1L << position);
+            }
+        }
+
+        private byte[] build() {
+            int tableSize = multipliers[pattern.length - 1] * length;
+            byte[] table = new byte[tableSize];
+            Arrays.fill(table, UNKNOWN);
+            long[] visited = new long[(int) (((long) tableSize * length + Long.SIZE - 1) / Long.SIZE)];
+
+            int goalIndex = 0;
+            long goalOccupied = 0;
+            for (int slot = 0; slot < pattern.length; slot++) {
+                int goalPosition = pattern[slot] - 1;
+                goalIndex += goalPosition * multipliers[slot];
+                goalOccupied |= 1L << goalPosition;
+            }
+            long goalRegion = fill(1L << (length - 1), board & ~goalOccupied);
+            int goalState = goalIndex * length + Long.numberOfTrailingZeros(goalRegion);
+
+            int[] current = {goalState};
+            int currentSize = 1;
+            visit(visited, goalState);
+            int[] positions = new int[pattern.length];
+            for (byte distance = 0; currentSize > 0; distance++) {
+                int[] next = new int[Math.max(16, currentSize)];
+                int nextSize = 0;
+                for (int i = 0; i < currentSize; i++) {
+                    int index = current[i] / length;
+                    int space = current[i] % length;
+                    if (table[index] == UNKNOWN) {
+                        table[index] = distance;
+                    }
+
+                    long occupied = 0;
+                    for (int slot = 0; slot < pattern.length; slot++) {
+                        positions[slot] = index / multipliers[slot] % length;
+                        occupied |= 1L << positions[slot];
+                    }
+                    long region = fill(1L << space, board & ~occupied);
+
+                    for (int slot = 0; slot < pattern.length; slot++) {
+                        int position = positions[slot];
+                        long targets = neighbors[position] & region;
+                        while (targets != 0) {
+                            int target = Long.numberOfTrailingZeros(targets);
+                            targets &= targets - 1;
+
+                            // the tile moves into the space region, the space takes the former tile position
+                            long movedOccupied = occupied & ~(1L << position) | 1L << target;
+                            long movedRegion = fill(1L << position, board & ~movedOccupied);
+                            int movedIndex = index + (target - position) * multipliers[slot];
+                            int movedState = movedIndex * length + Long.numberOfTrailingZeros(movedRegion);
+                            if (visit(visited, movedState)) {
+                                if (nextSize == next.length) {
+                                    next = Arrays.copyOf(next, next.length * 2);
+                                }
+                                next[nextSize++] = movedState;
+                            }
+                        }
+                    }
+                }
+                current = next;
+                currentSize = nextSize;
+            }
+            return table;
+        }
+
+        /**
+         * @return if the state has not been visited before
+         */
+        private boolean visit(long[] visited, int state) {
+            long bit = 1L << state;
+            int word = state >>> 6;
+            if ((visited[word] & bit) != 0) {
+                return false;
+            }
+            visited[word] |= bit;
+            return true;
+        }
+
+        private long fill(long region, long free) {
+            while (true) {
+                long grown = grow(region) & free;
+                if (grown == region) {
+                    return region;
+                }
+                region = grown;
+            }
+        }
+
+        private long grow(long region) {
+            return (region
+                    | region << width
+                    | region >>> width
+                    | (region & notRightColumn) << 1
+                    | (region & notLeftColumn) >>> 1) & board;
+        }
+
+    }
+
+}
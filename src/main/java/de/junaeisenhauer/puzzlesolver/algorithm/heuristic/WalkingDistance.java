@@ -0,0 +1,329 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Takahashi's walking distance: the vertical moves are estimated by a relaxed puzzle which only knows for each row how
+ * many of its tiles belong to which goal row. A vertical move takes any tile of a row next to the space row into the
+ * space row. The exact number of moves of this relaxed puzzle is looked up in a table built by a breadth search from
+ * the goal. The horizontal moves are estimated the same way by the columns. Vertical moves only change the rows and
+ * horizontal moves only the columns, so both values can be added. Unlike the manhattan distance the walking distance
+ * accounts for tiles which block each other.
+ * <p>
+ * The tables hold the successor of each table state for each move, so the {@link IncrementalEstimation incremental
+ * estimation} follows a move with a single lookup. The number of table states grows fast with the size, so the tables
+ * are limited to {@link #MAX_STATES} states, which is enough for boards up to 4x4, 3x5 and 5x3. The states are counted
+ * before a table is built, so larger sizes are rejected at once.
+ */
+public class WalkingDistance implements Heuristic {
+
+    public static final int MAX_STATES = 1 << 20;
+
+    private final int width;
+    private final int length;
+    private final Table rows;
+    private final Table columns;
+
+    /**
+     * @param size the puzzle size
+     * @throws IllegalArgumentException if a table of the size would have more than {@link #MAX_STATES} states
+     */
+    public WalkingDistance(PuzzleNode.PuzzleSize size) {
+        width = size.getWidth();
+        length = width * size.getHeight();
+        Table.checkSize(size.getHeight(), width);
+        Table.checkSize(width, size.getHeight());
+        rows = new Table(size.getHeight(), width);
+        columns = width == size.getHeight() ? rows : new Table(width, size.getHeight());
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        return rows.getDistance(getRowState(tiles)) + columns.getDistance(getColumnState(tiles));
+    }
+
+    @Override
+    public IncrementalEstimation createIncrementalEstimation(int[] tiles) {
+        return new IncrementalEstimation() {
+            private int rowState = getRowState(tiles);
+            private int columnState = getColumnState(tiles);
+
+            @Override
+            public int getEstimation() {
+                return rows.getDistance(rowState) + columns.getDistance(columnState);
+            }
+
+            @Override
+            public void move(int tile, int from, int to) {
+                // the space moves from the line of the target position to the line of the tile position
+                int fromRow = from / width;
+                int toRow = to / width;
+                if (fromRow != toRow) {
+                    rowState = rows.move(rowState, fromRow > toRow, (tile - 1) / width);
+                } else {
+                    columnState = columns.move(columnState, from > to, (tile - 1) % width);
+                }
+            }
+        };
+    }
+
+    private int getRowState(int[] tiles) {
+        int[] counts = new int[rows.lines * rows.lines];
+        int space = 0;
+        for (int position = 0; position < length; position++) {
+            int tile = tiles[position];
+            if (tile == 0) {
+                space = position / width;
+            } else {
+                counts[position / width * rows.lines + (tile - 1) / width]++;
+            }
+        }
+        return rows.getState(counts, space);
+    }
+
+    private int getColumnState(int[] tiles) {
+        int[] counts = new int[columns.lines * columns.lines];
+        int space = 0;
+        for (int position = 0; position < length; position++) {
+            int tile = tiles[position];
+            if (tile == 0) {
+                space = position % width;
+            } else {
+                counts[position % width * columns.lines + (tile - 1) % width]++;
+            }
+        }
+        return columns.getState(counts, space);
+    }
+
+    /**
+     * The table of the relaxed puzzle of the rows or the columns. A table state is the number of tiles of each line
+     * with each goal line and the line of the space, packed into a key. The keys are sorted, the index of a key is the
+     * state used for the lookups.
+     */
+    private static class Table {
+
+        private final int lines;
+        private final int lineLength;
+        private final int countBits;
+        private final long[] keys;
+        private final byte[] distances;
+        /**
+         * The state reached by moving the space of a state towards the first or last line, taking a tile of a goal line
+         * into the space line, at index (state * 2 + direction) * lines + goal line. -1 if there is no such tile.
+         */
+        private final int[] successors;
+
+        /**
+         * @param lines      the number of lines, e.g. the height for the rows
+         * @param lineLength the number of positions of each line, e.g. the width for the rows
+         */
+        private Table(int lines, int lineLength) {
+            this.lines = lines;
+            this.lineLength = lineLength;
+            countBits = getCountBits(lineLength);
+
+            int[] goal = new int[lines * lines];
+            for (int line = 0; line < lines; line++) {
+                goal[line * lines + line] = line == lines - 1 ? lineLength - 1 : lineLength;
+            }
+            Map<Long, Integer> indexes = new HashMap<>();
+            long[] queue = {getKey(goal, lines - 1)};
+            int queueSize = 1;
+            byte[] queueDistances = {0};
+            int[] queueSuccessors = new int[2 * lines];
+            indexes.put(queue[0], 0);
+            int[] counts = new int[lines * lines];
+            for (int head = 0; head < queueSize; head++) {
+                int space = getCounts(queue[head], counts);
+                for (int direction = 0; direction < 2; direction++) {
+                    int line = direction == 0 ? space - 1 : space + 1;
+                    for (int goalLine = 0; goalLine < lines; goalLine++) {
+                        int successorIndex = (head * 2 + direction) * lines + goalLine;
+                        if (line < 0 || line >= lines || counts[line * lines + goalLine] == 0) {
+                            queueSuccessors[successorIndex] = -1;
+                            continue;
+                        }
+                        counts[line * lines + goalLine]--;
+                        counts[space * lines + goalLine]++;
+                        long key = getKey(counts, line);
+                        counts[line * lines + goalLine]++;
+                        counts[space * lines + goalLine]--;
+
+                        Integer index = indexes.get(key);
+                        if (index == null) {
+                            index = queueSize++;
+                            indexes.put(key, index);
+                            if (queueSize > queue.length) {
+                                queue = Arrays.copyOf(queue, queue.length * 2);
+                                queueDistances = Arrays.copyOf(queueDistances, queue.length);
+                                queueSuccessors = Arrays.copyOf(queueSuccessors, queue.length * 2 * lines);
+                            }
+                            queue[index] = key;
+                            queueDistances[index] = (byte) (queueDistances[head] + 1);
+                        }
+                        queueSuccessors[successorIndex] = index;
+                    }
+                }
+            }
+
+            // sort the states by key, so the state of a key is found by a binary search
+            keys = Arrays.copyOf(queue, queueSize);
+            Arrays.sort(keys);
+            int[] sortedIndexes = new int[queueSize];
+            for (int i = 0; i < queueSize; i++) {
+                sortedIndexes[i] = Arrays.binarySearch(keys, queue[i]);
+            }
+            distances = new byte[queueSize];
+            successors = new int[queueSize * 2 * lines];
+            for (int i = 0; i < queueSize; i++) {
+                int state = sortedIndexes[i];
+                distances[state] = queueDistances[i];
+                for (int j = 0; j < 2 * lines; j++) {
+                    int successor = queueSuccessors[i * 2 * lines + j];
+                    successors[state * 2 * lines + j] = successor == -1 ? -1 : sortedIndexes[successor];
+                }
+            }
+        }
+
+        /**
+         * Checks the size of a table before it is built, so a size which is too large is rejected at once.
+         *
+         * @throws IllegalArgumentException if the keys do not fit into a long or the table has more than
+         *                                  {@link #MAX_STATES} states
+         */
+        private static void checkSize(int lines, int lineLength) {
+            // the count of the last goal line follows from the others
+            if (lines * (lines - 1) * getCountBits(lineLength) + Integer.SIZE - Integer.numberOfLeadingZeros(lines)
+                    > Long.SIZE) {
+                throw new IllegalArgumentException("Walking distance tables of " + lines + " lines are too large");
+            }
+            long stateCount = countStates(lines, lineLength);
+            if (stateCount > MAX_STATES) {
+                throw new IllegalArgumentException("Walking distance table of " + lines + " lines has " + stateCount
+                        + " states, more than " + MAX_STATES);
+            }
+        }
+
+        private static int getCountBits(int lineLength) {
+            return Integer.SIZE - Integer.numberOfLeadingZeros(lineLength);
+        }
+
+        /**
+         * Counts the states of a table without building it: for each line of the space the number of ways to fill
+         * the lines with the tiles of the goal lines, so each line is full and each goal line has all its tiles.
+         */
+        private static long countStates(int lines, int lineLength) {
+            int[] lineSizes = new int[lines];
+            long count = 0;
+            for (int space = 0; space < lines; space++) {
+                for (int line = 0; line < lines; line++) {
+                    lineSizes[line] = line == space ? lineLength - 1 : lineLength;
+                }
+                // the goal lines have the same sizes as the lines of the goal state, whose space is in the last line
+                int[] remaining = new int[lines];
+                Arrays.fill(remaining, lineLength);
+                remaining[lines - 1]--;
+                count += countFillings(lineSizes, 0, 0, lineSizes[0], remaining, lineLength + 1, new HashMap<>());
+            }
+            return count;
+        }
+
+        /**
+         * Counts the ways to put the remaining tiles of each goal line into the lines from a position on.
+         *
+         * @param line      the line which is filled
+         * @param goalLine  the goal line of the next tiles of the line
+         * @param free      the free positions of the line
+         * @param remaining the number of tiles of each goal line which are not in a line yet
+         * @param base      the base to pack the remaining tiles into a key of the memo
+         * @param memo      the number of ways for the remaining tiles at the start of a line
+         */
+        private static long countFillings(int[] lineSizes, int line, int goalLine, int free, int[] remaining,
+                                          int base, Map<Long, Long> memo) {
+            int lines = remaining.length;
+            if (goalLine == lines) {
+                if (free != 0) {
+                    return 0;
+                }
+                if (line == lines - 1) {
+                    return 1;
+                }
+                long key = line;
+                for (int count : remaining) {
+                    key = key * base + count;
+                }
+                Long count = memo.get(key);
+                if (count == null) {
+                    count = countFillings(lineSizes, line + 1, 0, lineSizes[line + 1], remaining, base, memo);
+                    memo.put(key, count);
+                }
+                return count;
+            }
+            long count = 0;
+            int maxTiles = Math.min(free, remaining[goalLine]);
+            for (int tiles = 0; tiles <= maxTiles; tiles++) {
+                remaining[goalLine] -= tiles;
+                count += countFillings(lineSizes, line, goalLine + 1, free - tiles, remaining, base, memo);
+                remaining[goalLine] += tiles;
+            }
+            return count;
+        }
+
+        private int getState(int[] counts, int space) {
+            return Arrays.binarySearch(keys, getKey(counts, space));
+        }
+
+        private int getDistance(int state) {
+            return distances[state];
+        }
+
+        /**
+         * @param towardsLast if the space moves to the next line, else to the previous line
+         * @param goalLine    the goal line of the tile taken into the space line
+         */
+        private int move(int state, boolean towardsLast, int goalLine) {
+            return successors[(state * 2 + (towardsLast ? 1 : 0)) * lines + goalLine];
+        }
+
+        private long getKey(int[] counts, int space) {
+            long key = space;
+            for (int line = 0; line < lines; line++) {
+                for (int goalLine = 0; goalLine < lines - 1; goalLine++) {
+                    key = key << countBits | counts[line * lines + goalLine];
+                }
+            }
+            return key;
+        }
+
+        /**
+         * Unpacks the counts of a key.
+         *
+         * @return the line of the space
+         */
+        private int getCounts(long key, int[] counts) {
+            long mask = (1L << countBits) - 1;
+            for (int line = lines - 1; line >= 0; line--) {
+                for (int goalLine = lines - 2; goalLine >= 0; goalLine--) {
+                    counts[line * lines + goalLine] = (int) (key & mask);
+                    key >>>= countBits;
+                }
+            }
+            int space = (int) key;
+            // the tiles of the last goal line fill up the line
+            for (int line = 0; line < lines; line++) {
+                int count = line == space ? lineLength - 1 : lineLength;
+                for (int goalLine = 0; goalLine < lines - 1; goalLine++) {
+                    count -= counts[line * lines + goalLine];
+                }
+                counts[line * lines + lines - 1] = count;
+            }
+            return space;
+        }
+
+    }
+
+}
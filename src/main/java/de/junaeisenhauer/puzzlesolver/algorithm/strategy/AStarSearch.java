@@ -1,51 +1,194 @@
 package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
 
 import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
 
-import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 
+/**
+ * A* search. Puzzles whose states fit into a single long are searched without node objects: the nodes are kept in a
+ * {@link NodeArena} with their costs and estimation, the open list is a {@link BucketQueue} of their handles and a
+ * {@link StateIndex} maps each state to its node with the lowest costs. Among the nodes with the lowest evaluation the
+ * deepest one added last is expanded first. The estimation of a child is derived from its parent's by
+ * {@link Heuristic#estimateMove(int, int, int, int)} where possible. Other nodes are searched with node objects.
+ */
 public class AStarSearch implements SolveStrategy {
 
+    private static final int DIRECTIONS = PuzzleNode.MoveDirection.values().length;
+
     @Override
-    public <T> Node<T> solve(Node<T> start) {
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        if (start instanceof PuzzleNode && ((PuzzleNode) start).getSize().isPackedInLong()) {
+            return new ArenaSearch((PuzzleNode) start, context).solve();
+        }
+        return solveNodes(start, context);
+    }
+
+    private <T> Node<T> solveNodes(Node<T> start, SearchContext context) {
         // Priority Queue is based on a priority, binary heap
         PriorityQueue<Node<T>> open = new PriorityQueue<>(createHeuristicComparator());
-        List<Node<T>> closed = new ArrayList<>();
+        // index of the open list: the lowest costs a state has been queued with, keyed by the state (node equality)
+        Map<Node<T>, Integer> openCosts = new HashMap<>();
+        // the costs each expanded state has been expanded with
+        Map<Node<T>, Integer> closedCosts = new HashMap<>();
 
         open.add(start);
+        openCosts.put(start, start.getCosts());
 
-        while (!open.isEmpty()) {
+        while (!open.isEmpty() && !context.isStopped()) {
             Node<T> node = open.poll();
+            Integer queuedCosts = openCosts.get(node);
+            if (queuedCosts == null || node.getCosts() > queuedCosts) {
+                // lazy deletion: the state is already closed or has been queued again with lower costs
+                continue;
+            }
             if (node.isGoal()) {
                 return node;
             }
-            closed.add(node);
+            openCosts.remove(node);
+            closedCosts.put(node, node.getCosts());
+            context.offerPartialResult(node);
 
-            List<Node<T>> children = node.getChildren();
+            List<Node<T>> children = node.generateChildren();
+            context.expanded(children.size());
             for (Node<T> child : children) {
-                if (closed.contains(child)) {
-                    continue;
+                Integer childClosedCosts = closedCosts.get(child);
+                if (childClosedCosts != null) {
+                    if (childClosedCosts <= child.getCosts()) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+                    // only happens with inconsistent heuristics: the state is reopened with the lower costs
+                    closedCosts.remove(child);
                 }
-                if (open.contains(child)) {
+                Integer childQueuedCosts = openCosts.get(child);
+                if (childQueuedCosts != null && childQueuedCosts <= child.getCosts()) {
+                    context.prunedDuplicate();
                     continue;
                 }
 
+                // a shorter path to a queued state replaces the longer one, the old entry becomes stale
+                openCosts.put(child, child.getCosts());
                 open.add(child);
             }
+            context.frontier(openCosts.size(), closedCosts.size());
         }
 
         return null;
     }
 
-    private Comparator<Node<?>> createHeuristicComparator() {
+    static Comparator<Node<?>> createHeuristicComparator() {
         return (node1, node2) -> {
             int heuristicEvaluation1 = node1.getHeuristicEstimation() + node1.getCosts();
             int heuristicEvaluation2 = node2.getHeuristicEstimation() + node2.getCosts();
-            return heuristicEvaluation1 - heuristicEvaluation2;
+            if (heuristicEvaluation1 != heuristicEvaluation2) {
+                return heuristicEvaluation1 - heuristicEvaluation2;
+            }
+            // prefer nodes closer to the goal on equal evaluation
+            return node1.getHeuristicEstimation() - node2.getHeuristicEstimation();
         };
     }
 
+    /**
+     * The state of a single search on a node arena, so the strategy itself can be shared.
+     */
+    private static class ArenaSearch {
+
+        private final PuzzleNode start;
+        private final SearchContext context;
+        private final PuzzleBoard board;
+        private final Heuristic heuristic;
+        private final NodeArena nodes;
+        private final StateIndex bestNodes = new StateIndex();
+        private final BucketQueue open = new BucketQueue();
+        private final int[] tiles;
+
+        private ArenaSearch(PuzzleNode start, SearchContext context) {
+            this.start = start;
+            this.context = context;
+            board = new PuzzleBoard(start);
+            heuristic = start.getHeuristic();
+            nodes = new NodeArena(start.getSize());
+            tiles = new int[board.getLength()];
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Node<T> solve() {
+            long goalState = PuzzleNode.createGoal(start.getSize()).getStateKey();
+            int root = nodes.add(start.getStateKey(), NodeArena.NONE, 0, 0, start.getHeuristicEstimation());
+            bestNodes.put(start.getStateKey(), root);
+            open.add(root, start.getHeuristicEstimation(), start.getHeuristicEstimation());
+            int closestNode = root;
+
+            while (!open.isEmpty() && !context.isStopped()) {
+                int node = open.poll();
+                long state = nodes.getState(node);
+                if (bestNodes.get(state) != node) {
+                    // lazy deletion: the state has been queued again with lower costs
+                    continue;
+                }
+                if (state == goalState) {
+                    return (Node<T>) nodes.createNode(start, node);
+                }
+                if (nodes.getEstimation(node) < nodes.getEstimation(closestNode)) {
+                    closestNode = node;
+                }
+
+                int space = nodes.getSpacePosition(state);
+                int childCosts = nodes.getCosts(node) + 1;
+                int generated = 0;
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    int target = nodes.getChildTarget(board, node, space, direction);
+                    if (target == -1) {
+                        continue;
+                    }
+                    generated++;
+                    long child = nodes.move(state, space, target);
+                    int known = bestNodes.get(child);
+                    if (known != StateIndex.MISSING && nodes.getCosts(known) <= childCosts) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+                    // a shorter path replaces the known node, which becomes stale in the open list; with
+                    // inconsistent heuristics an expanded state is reopened this way
+                    int estimation = estimate(node, child, space, target);
+                    int childNode = nodes.add(child, node, direction, childCosts, estimation);
+                    bestNodes.put(child, childNode);
+                    open.add(childNode, childCosts + estimation, estimation);
+                }
+                context.expanded(generated);
+                context.frontier(open.size(), bestNodes.size());
+            }
+
+            if (context.isStopped()) {
+                context.offerPartialResult(nodes.createNode(start, closestNode));
+            }
+            return null;
+        }
+
+        /**
+         * Estimates a child from the estimation of its parent if the heuristic supports it, else from all tiles.
+         */
+        private int estimate(int parent, long child, int space, int target) {
+            // the tile of the target position has been moved to the space position of the parent
+            int estimation = heuristic.estimateMove(nodes.getEstimation(parent), nodes.getTile(child, space), target,
+                    space);
+            if (estimation != -1) {
+                return estimation;
+            }
+            nodes.getTiles(child, tiles);
+            return heuristic.estimate(tiles);
+        }
+
+    }
+
 }
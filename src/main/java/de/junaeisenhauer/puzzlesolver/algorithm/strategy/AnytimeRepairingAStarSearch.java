@@ -0,0 +1,230 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Anytime repairing A* search (ARA*). A weighted A* search with the evaluation costs + weight * heuristic estimation
+ * finds a first solution quickly, which is at most weight times as expensive as an optimal one. The weight is then
+ * decreased step by step down to 1, each search reuses the nodes of the previous ones and improves the solution until
+ * it is proven to be optimal. Every improved solution is reported to the {@link SearchListener} together with its
+ * suboptimality bound, so the search can be stopped as soon as the solution is good enough.
+ * With a weight decrement of 0 only a single weighted A* search is done.
+ */
+public class AnytimeRepairingAStarSearch implements SolveStrategy {
+
+    private static final double DEFAULT_INITIAL_WEIGHT = 3;
+    private static final double DEFAULT_WEIGHT_DECREMENT = 0.5;
+
+    private final double initialWeight;
+    private final double weightDecrement;
+
+    public AnytimeRepairingAStarSearch() {
+        this(DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_DECREMENT);
+    }
+
+    /**
+     * @param initialWeight   the weight of the heuristic estimation of the first search, at least 1
+     * @param weightDecrement the value the weight is decreased by after each search, 0 for a single search
+     */
+    public AnytimeRepairingAStarSearch(double initialWeight, double weightDecrement) {
+        if (initialWeight < 1) {
+            throw new IllegalArgumentException("The weight must be at least 1");
+        }
+        if (weightDecrement < 0) {
+            throw new IllegalArgumentException("The weight decrement must not be negative");
+        }
+        this.initialWeight = initialWeight;
+        this.weightDecrement = weightDecrement;
+    }
+
+    @Override
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        return new Search<T>(context).solve(start);
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private class Search<T> {
+
+        private final SearchContext context;
+        /**
+         * The node with the lowest costs of each state, keyed by the state (node equality).
+         */
+        private final Map<Node<T>, Node<T>> best = new HashMap<>();
+        private final Set<Node<T>> closed = new HashSet<>();
+        /**
+         * Closed nodes which have been reached again with lower costs during the current search, they are expanded
+         * again by the next search.
+         */
+        private final List<Node<T>> inconsistent = new ArrayList<>();
+        private PriorityQueue<Entry<T>> open = new PriorityQueue<>();
+        private double weight = initialWeight;
+        private Node<T> solution;
+        private Node<T> reported;
+
+        private Search(SearchContext context) {
+            this.context = context;
+        }
+
+        private Node<T> solve(Node<T> start) {
+            if (start.isGoal()) {
+                return start;
+            }
+            best.put(start, start);
+            open.add(new Entry<>(start, weight));
+
+            while (true) {
+                improveSolution();
+                if (context.isStopped()) {
+                    if (solution != null && solution != reported) {
+                        // the bound of the weight is only guaranteed for completed searches
+                        context.improvedSolution(solution, getBound(Double.MAX_VALUE));
+                    }
+                    // the last reported solution is the partial result
+                    return null;
+                }
+                if (solution == null) {
+                    return null;
+                }
+
+                double bound = getBound(weight);
+                if (solution != reported) {
+                    reported = solution;
+                    context.improvedSolution(solution, bound);
+                }
+                if (bound <= 1 || weightDecrement == 0) {
+                    return solution;
+                }
+
+                weight = Math.max(1, weight - weightDecrement);
+                reorderOpen();
+            }
+        }
+
+        /**
+         * Expands nodes until no node of the open list can lead to a cheaper solution with the current weight.
+         */
+        private void improveSolution() {
+            while (!open.isEmpty() && !context.isStopped()) {
+                Entry<T> entry = open.peek();
+                if (solution != null && solution.getCosts() <= entry.key) {
+                    return;
+                }
+                open.poll();
+                Node<T> node = entry.node;
+                if (best.get(node) != node || !closed.add(node)) {
+                    // lazy deletion: the state has been reached with lower costs or has already been expanded
+                    continue;
+                }
+                context.offerPartialResult(node);
+
+                List<Node<T>> children = node.generateChildren();
+                context.expanded(children.size());
+                for (Node<T> child : children) {
+                    Node<T> known = best.get(child);
+                    if (known != null && known.getCosts() <= child.getCosts()) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+
+                    best.put(child, child);
+                    if (child.isGoal()) {
+                        // the goal does not have to be expanded
+                        if (solution == null || child.getCosts() < solution.getCosts()) {
+                            solution = child;
+                        }
+                    } else if (closed.contains(child)) {
+                        inconsistent.add(child);
+                    } else {
+                        open.add(new Entry<>(child, weight));
+                    }
+                }
+                context.frontier(open.size(), closed.size());
+            }
+        }
+
+        /**
+         * @return the factor the costs of the current solution exceed the optimal costs at most
+         */
+        private double getBound(double maxBound) {
+            return Math.max(1, Math.min(maxBound, solution.getCosts() / getLowestEvaluation()));
+        }
+
+        /**
+         * @return the lowest unweighted evaluation of all nodes which could still lead to a cheaper solution
+         */
+        private double getLowestEvaluation() {
+            int lowest = solution.getCosts();
+            for (Entry<T> entry : open) {
+                if (best.get(entry.node) == entry.node && !closed.contains(entry.node)) {
+                    lowest = Math.min(lowest, entry.node.getCosts() + entry.node.getHeuristicEstimation());
+                }
+            }
+            for (Node<T> node : inconsistent) {
+                if (best.get(node) == node) {
+                    lowest = Math.min(lowest, node.getCosts() + node.getHeuristicEstimation());
+                }
+            }
+            return Math.max(1, lowest);
+        }
+
+        /**
+         * Moves the inconsistent nodes into the open list, updates all keys to the new weight and starts with an
+         * empty closed list.
+         */
+        private void reorderOpen() {
+            PriorityQueue<Entry<T>> reordered = new PriorityQueue<>();
+            for (Entry<T> entry : open) {
+                if (best.get(entry.node) == entry.node && !closed.contains(entry.node)) {
+                    reordered.add(new Entry<>(entry.node, weight));
+                }
+            }
+            for (Node<T> node : inconsistent) {
+                if (best.get(node) == node) {
+                    reordered.add(new Entry<>(node, weight));
+                }
+            }
+            inconsistent.clear();
+            closed.clear();
+            open = reordered;
+        }
+
+    }
+
+    /**
+     * An open list entry with the weighted evaluation computed once when the node is added.
+     */
+    private static class Entry<T> implements Comparable<Entry<T>> {
+
+        private final Node<T> node;
+        private final double key;
+
+        private Entry(Node<T> node, double weight) {
+            this.node = node;
+            this.key = node.getCosts() + weight * node.getHeuristicEstimation();
+        }
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            if (key != other.key) {
+                return Double.compare(key, other.key);
+            }
+            // prefer nodes closer to the goal on equal evaluation
+            return Integer.compare(node.getHeuristicEstimation(), other.node.getHeuristicEstimation());
+        }
+
+    }
+
+}
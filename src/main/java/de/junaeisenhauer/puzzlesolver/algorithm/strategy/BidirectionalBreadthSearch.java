@@ -0,0 +1,88 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Breadth search from the start and from the goal at the same time. The smaller frontier is expanded by a whole
+ * level, the search stops as soon as a generated state has already been visited by the other direction.
+ * Both directions only have to reach about half of the solution depth.
+ */
+public class BidirectionalBreadthSearch implements SolveStrategy {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("Bidirectional breadth search requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        PuzzleNode startNode = (PuzzleNode) start;
+        PuzzleNode goalNode = PuzzleNode.createGoal(startNode.getSize(), startNode.getHeuristic());
+        if (startNode.equals(goalNode)) {
+            return start;
+        }
+
+        // the visited states of each direction, keyed by the state (node equality)
+        Map<PuzzleNode, PuzzleNode> forwardVisited = new HashMap<>();
+        Map<PuzzleNode, PuzzleNode> backwardVisited = new HashMap<>();
+        forwardVisited.put(startNode, startNode);
+        backwardVisited.put(goalNode, goalNode);
+        List<PuzzleNode> forwardFrontier = List.of(startNode);
+        List<PuzzleNode> backwardFrontier = List.of(goalNode);
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty() && !context.isStopped()) {
+            boolean forward = forwardFrontier.size() <= backwardFrontier.size();
+            List<PuzzleNode> frontier = forward ? forwardFrontier : backwardFrontier;
+            Map<PuzzleNode, PuzzleNode> visited = forward ? forwardVisited : backwardVisited;
+            Map<PuzzleNode, PuzzleNode> otherVisited = forward ? backwardVisited : forwardVisited;
+
+            context.frontier(forwardFrontier.size() + backwardFrontier.size(),
+                    forwardVisited.size() + backwardVisited.size());
+            List<PuzzleNode> nextFrontier = new ArrayList<>();
+            for (PuzzleNode node : frontier) {
+                if (context.isStopped()) {
+                    return null;
+                }
+                if (forward) {
+                    context.offerPartialResult(node);
+                }
+                List<Node<int[]>> children = node.generateChildren();
+                context.expanded(children.size());
+                for (Node<int[]> childNode : children) {
+                    PuzzleNode child = (PuzzleNode) childNode;
+                    if (visited.containsKey(child)) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+                    PuzzleNode meeting = otherVisited.get(child);
+                    if (meeting != null) {
+                        // the first meeting is optimal, because all states of smaller depths have been compared
+                        PuzzleNode result = forward
+                                ? child.appendBackwardPath(meeting)
+                                : meeting.appendBackwardPath(child);
+                        return (Node<T>) result;
+                    }
+                    visited.put(child, child);
+                    nextFrontier.add(child);
+                }
+            }
+
+            if (forward) {
+                forwardFrontier = nextFrontier;
+            } else {
+                backwardFrontier = nextFrontier;
+            }
+        }
+
+        return null;
+    }
+
+}
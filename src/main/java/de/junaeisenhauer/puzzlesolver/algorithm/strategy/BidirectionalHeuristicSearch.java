@@ -0,0 +1,203 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bidirectional heuristic search which meets in the middle (MM). Both directions prioritize a node by the maximum of
+ * its f-value and twice its costs, so neither direction expands nodes beyond half of the solution costs.
+ * The forward direction uses the heuristic of the start node, the backward direction the manhattan distance to the
+ * start. The search stops once the best meeting is not more expensive than the lowest priority of both directions.
+ */
+public class BidirectionalHeuristicSearch implements SolveStrategy {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("Bidirectional heuristic search requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        PuzzleNode startNode = (PuzzleNode) start;
+        PuzzleNode goalNode = PuzzleNode.createGoal(startNode.getSize(), startNode.getHeuristic());
+        if (startNode.equals(goalNode)) {
+            return start;
+        }
+
+        int[] startPositions = getPositions(startNode.getState());
+        Direction forward = new Direction(startNode, Node::getHeuristicEstimation);
+        Direction backward = new Direction(goalNode, node -> estimateToStart(node, startPositions));
+
+        PuzzleNode bestForward = null;
+        PuzzleNode bestBackward = null;
+        int bestCosts = Integer.MAX_VALUE;
+
+        while (forward.hasOpen() && backward.hasOpen() && !context.isStopped()) {
+            int forwardPriority = forward.getMinPriority();
+            int backwardPriority = backward.getMinPriority();
+            if (bestCosts <= Math.min(forwardPriority, backwardPriority)) {
+                break;
+            }
+
+            boolean expandForward = forwardPriority <= backwardPriority;
+            Direction direction = expandForward ? forward : backward;
+            Direction other = expandForward ? backward : forward;
+            PuzzleNode node = direction.poll();
+            if (expandForward) {
+                context.offerPartialResult(node);
+            }
+            List<Node<int[]>> children = node.generateChildren();
+            context.expanded(children.size());
+            for (Node<int[]> childNode : children) {
+                PuzzleNode child = (PuzzleNode) childNode;
+                if (!direction.offer(child)) {
+                    context.prunedDuplicate();
+                    continue;
+                }
+                PuzzleNode meeting = other.getBest(child);
+                if (meeting != null && child.getCosts() + meeting.getCosts() < bestCosts) {
+                    bestCosts = child.getCosts() + meeting.getCosts();
+                    bestForward = expandForward ? child : meeting;
+                    bestBackward = expandForward ? meeting : child;
+                }
+            }
+            context.frontier(forward.open.size() + backward.open.size(),
+                    forward.closed.size() + backward.closed.size());
+        }
+
+        if (bestForward == null) {
+            return null;
+        }
+        PuzzleNode result = bestForward.appendBackwardPath(bestBackward);
+        if (context.isStopped()) {
+            // the best meeting so far is not proven to be optimal
+            context.offerPartialResult(result);
+            return null;
+        }
+        return (Node<T>) result;
+    }
+
+    private static int[] getPositions(int[] state) {
+        int[] positions = new int[state.length];
+        for (int position = 0; position < state.length; position++) {
+            positions[state[position]] = position;
+        }
+        return positions;
+    }
+
+    private static int estimateToStart(PuzzleNode node, int[] startPositions) {
+        int width = node.getSize().getWidth();
+        int estimation = 0;
+        for (int position = 0; position < startPositions.length; position++) {
+            int tile = node.getTile(position);
+            if (tile == 0) {
+                continue;
+            }
+            int startPosition = startPositions[tile];
+            estimation += Math.abs(startPosition % width - position % width)
+                    + Math.abs(startPosition / width - position / width);
+        }
+        return estimation;
+    }
+
+    /**
+     * Open and closed list of one search direction.
+     */
+    private static class Direction {
+
+        private final ToIntFunction<PuzzleNode> estimation;
+        private final PriorityQueue<Entry> open = new PriorityQueue<>();
+        /**
+         * The node with the lowest costs of each state reached in this direction, keyed by the state.
+         */
+        private final Map<PuzzleNode, PuzzleNode> best = new HashMap<>();
+        private final Set<PuzzleNode> closed = new HashSet<>();
+
+        private Direction(PuzzleNode root, ToIntFunction<PuzzleNode> estimation) {
+            this.estimation = estimation;
+            offer(root);
+        }
+
+        private boolean hasOpen() {
+            skipStale();
+            return !open.isEmpty();
+        }
+
+        private int getMinPriority() {
+            skipStale();
+            return open.peek().priority;
+        }
+
+        private PuzzleNode poll() {
+            skipStale();
+            PuzzleNode node = open.poll().node;
+            closed.add(node);
+            return node;
+        }
+
+        /**
+         * @return if the node is the best one of its state and has been added to the open list
+         */
+        private boolean offer(PuzzleNode node) {
+            PuzzleNode known = best.get(node);
+            if (known != null && known.getCosts() <= node.getCosts()) {
+                return false;
+            }
+            // a cheaper path reopens a closed state, the older open entry becomes stale
+            best.put(node, node);
+            closed.remove(node);
+            int costs = node.getCosts();
+            open.add(new Entry(node, Math.max(costs + estimation.applyAsInt(node), 2 * costs)));
+            return true;
+        }
+
+        private PuzzleNode getBest(PuzzleNode node) {
+            return best.get(node);
+        }
+
+        private void skipStale() {
+            while (!open.isEmpty()) {
+                PuzzleNode node = open.peek().node;
+                if (best.get(node) == node && !closed.contains(node)) {
+                    return;
+                }
+                open.poll();
+            }
+        }
+
+    }
+
+    /**
+     * An open list entry with the priority computed once when the node is added.
+     */
+    private static class Entry implements Comparable<Entry> {
+
+        private final PuzzleNode node;
+        private final int priority;
+
+        private Entry(PuzzleNode node, int priority) {
+            this.node = node;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Integer.compare(node.getCosts(), other.node.getCosts());
+        }
+
+    }
+
+}
@@ -1,31 +1,144 @@
 package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
 
 import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
 
+/**
+ * Breadth search with duplicate detection. Puzzles whose states fit into a single long are searched without node
+ * objects: the nodes are added to a {@link NodeArena} in breadth first order, so the arena is the queue as well, and
+ * the visited states are kept in a {@link StateIndex}. An exhaustive search of all 181440 states of the 3x3 puzzle
+ * needs only a few megabytes. The node objects of the solution are created from the moves at the end. Other nodes are
+ * searched with a queue of nodes and a set of the visited nodes.
+ */
 public class BreadthSearch implements SolveStrategy {
 
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
     @Override
-    public <T> Node<T> solve(Node<T> start) {
-        return solve(Collections.singletonList(start));
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        if (start instanceof PuzzleNode && ((PuzzleNode) start).getSize().isPackedInLong()) {
+            return new PackedSearch((PuzzleNode) start, context).solve();
+        }
+        return solveNodes(start, context);
     }
 
-    private <T> Node<T> solve(List<Node<T>> nodes) {
-        List<Node<T>> children = new ArrayList<>();
-        for (Node<T> node : nodes) {
+    private <T> Node<T> solveNodes(Node<T> start, SearchContext context) {
+        Queue<Node<T>> frontier = new ArrayDeque<>();
+        Set<Node<T>> visited = new HashSet<>();
+        frontier.add(start);
+        visited.add(start);
+        while (!frontier.isEmpty()) {
+            Node<T> node = frontier.poll();
             if (node.isGoal()) {
                 return node;
             }
-            children.addAll(node.getChildren());
+            if (context.isStopped()) {
+                return null;
+            }
+            context.offerPartialResult(node);
+            int generated = 0;
+            for (Node<T> child : node.getChildren()) {
+                generated++;
+                if (visited.add(child)) {
+                    frontier.add(child);
+                } else {
+                    context.prunedDuplicate();
+                }
+            }
+            context.expanded(generated);
+            context.frontier(frontier.size(), visited.size());
+        }
+        return null;
+    }
+
+    /**
+     * The state of a single search of packed states, so the strategy itself can be shared.
+     */
+    private static class PackedSearch {
+
+        private final PuzzleNode start;
+        private final SearchContext context;
+        private final PuzzleBoard board;
+        private final NodeArena nodes;
+        private final StateIndex visited = new StateIndex();
+
+        private PackedSearch(PuzzleNode start, SearchContext context) {
+            this.start = start;
+            this.context = context;
+            board = new PuzzleBoard(start);
+            nodes = new NodeArena(start.getSize());
         }
 
-        if (children.isEmpty()) {
+        private <T> Node<T> solve() {
+            long goalState = PuzzleNode.createGoal(start.getSize()).getStateKey();
+            visited.put(start.getStateKey(), nodes.add(start.getStateKey(), NodeArena.NONE, 0, 0, 0));
+            // the nodes are added in breadth first order, so the frontier is the range from the current node to the end
+            for (int node = 0; node < nodes.size(); node++) {
+                long state = nodes.getState(node);
+                if (state == goalState) {
+                    return createNode(node);
+                }
+                if (context.isStopped()) {
+                    offerPartialResult();
+                    return null;
+                }
+
+                int space = nodes.getSpacePosition(state);
+                int generated = 0;
+                for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                    int target = nodes.getChildTarget(board, node, space, direction);
+                    if (target == -1) {
+                        continue;
+                    }
+                    generated++;
+                    long child = nodes.move(state, space, target);
+                    if (visited.get(child) == StateIndex.MISSING) {
+                        visited.put(child, nodes.add(child, node, direction, nodes.getCosts(node) + 1, 0));
+                    } else {
+                        context.prunedDuplicate();
+                    }
+                }
+                context.expanded(generated);
+                context.frontier(nodes.size() - node - 1, visited.size());
+            }
             return null;
         }
-        return solve(children);
+
+        @SuppressWarnings("unchecked")
+        private <T> Node<T> createNode(int node) {
+            return (Node<T>) nodes.createNode(start, node);
+        }
+
+        /**
+         * Offers the visited node with the lowest heuristic estimation, which is only searched for when the search
+         * is stopped, so the expansions stay free of heuristic evaluations.
+         */
+        private void offerPartialResult() {
+            int[] tiles = new int[board.getLength()];
+            int bestNode = -1;
+            int bestEstimation = Integer.MAX_VALUE;
+            for (int node = 0; node < nodes.size(); node++) {
+                nodes.getTiles(nodes.getState(node), tiles);
+                int estimation = start.getHeuristic().estimate(tiles);
+                if (estimation < bestEstimation) {
+                    bestEstimation = estimation;
+                    bestNode = node;
+                }
+            }
+            if (bestNode != -1) {
+                context.offerPartialResult(createNode(bestNode));
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,117 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import java.util.Arrays;
+
+/**
+ * A bucket priority queue of node handles for open lists with small integer evaluations, as in sliding puzzles. There
+ * is a bucket for each evaluation (costs plus estimation) and estimation, nodes are polled by the lowest evaluation,
+ * then by the lowest estimation, so the deepest nodes of an evaluation come first, and last in first out within a
+ * bucket. Adding and polling take constant time instead of the logarithmic time of a binary heap, only moving to the
+ * next non-empty bucket skips the empty ones.
+ * The estimation of a node never exceeds its evaluation, so there are evaluation + 1 buckets per evaluation.
+ */
+public class BucketQueue {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    /**
+     * The handles of each bucket at index [evaluation][estimation], used as stacks. Null until the first handle of
+     * the evaluation or estimation is added.
+     */
+    private int[][][] buckets = new int[0][][];
+    private int[][] bucketSizes = new int[0][];
+    /**
+     * The number of handles of each evaluation.
+     */
+    private int[] evaluationSizes = new int[0];
+    /**
+     * The lowest estimation of each evaluation whose bucket may contain handles.
+     */
+    private int[] lowestEstimations = new int[0];
+    /**
+     * The lowest evaluation which may contain handles.
+     */
+    private int lowestEvaluation;
+    private int size;
+
+    /**
+     * @param node       the handle of the node
+     * @param evaluation the costs plus the estimation of the node
+     * @param estimation the estimation of the node
+     */
+    public void add(int node, int evaluation, int estimation) {
+        if (estimation > evaluation || estimation < 0) {
+            throw new IllegalArgumentException("Estimation " + estimation + " out of range of evaluation "
+                    + evaluation);
+        }
+        if (evaluation >= buckets.length) {
+            growEvaluations(evaluation);
+        }
+        int[][] evaluationBuckets = buckets[evaluation];
+        if (evaluationBuckets == null) {
+            evaluationBuckets = new int[evaluation + 1][];
+            buckets[evaluation] = evaluationBuckets;
+            bucketSizes[evaluation] = new int[evaluation + 1];
+        }
+        if (evaluationBuckets[estimation] == null) {
+            evaluationBuckets[estimation] = new int[INITIAL_BUCKET_CAPACITY];
+        }
+        int bucketSize = bucketSizes[evaluation][estimation];
+        if (bucketSize == evaluationBuckets[estimation].length) {
+            evaluationBuckets[estimation] = Arrays.copyOf(evaluationBuckets[estimation], bucketSize * 2);
+        }
+        evaluationBuckets[estimation][bucketSize] = node;
+        bucketSizes[evaluation][estimation] = bucketSize + 1;
+
+        if (evaluationSizes[evaluation]++ == 0 || estimation < lowestEstimations[evaluation]) {
+            lowestEstimations[evaluation] = estimation;
+        }
+        if (size++ == 0 || evaluation < lowestEvaluation) {
+            // inconsistent heuristics may add nodes below the polled evaluation
+            lowestEvaluation = evaluation;
+        }
+    }
+
+    /**
+     * Removes the node with the lowest evaluation and estimation which has been added last.
+     *
+     * @return the handle of the node
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty");
+        }
+        while (evaluationSizes[lowestEvaluation] == 0) {
+            lowestEvaluation++;
+        }
+        int evaluation = lowestEvaluation;
+        int[] sizes = bucketSizes[evaluation];
+        int estimation = lowestEstimations[evaluation];
+        while (sizes[estimation] == 0) {
+            estimation++;
+        }
+        lowestEstimations[evaluation] = estimation;
+        evaluationSizes[evaluation]--;
+        size--;
+        return buckets[evaluation][estimation][--sizes[estimation]];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void growEvaluations(int evaluation) {
+        // the buckets of an evaluation are created when it is used first
+        int length = Math.max(evaluation + 1, buckets.length * 2);
+        buckets = Arrays.copyOf(buckets, length);
+        bucketSizes = Arrays.copyOf(bucketSizes, length);
+        evaluationSizes = Arrays.copyOf(evaluationSizes, length);
+        lowestEstimations = Arrays.copyOf(lowestEstimations, length);
+    }
+
+}
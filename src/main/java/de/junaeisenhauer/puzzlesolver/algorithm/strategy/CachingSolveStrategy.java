@@ -0,0 +1,44 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+/**
+ * Decorator which looks up the start node in a {@link SolutionCache} before solving it with another strategy, and
+ * caches the solutions of the strategy. Only puzzle nodes are cached, other nodes are passed to the strategy.
+ */
+public class CachingSolveStrategy implements SolveStrategy {
+
+    private final String name;
+    private final SolveStrategy strategy;
+    private final SolutionCache cache;
+
+    /**
+     * @param name     the name of the strategy in the cache, e.g. its name in {@link SolveStrategies}
+     * @param strategy the strategy which solves the states which are not cached
+     * @param cache    the cache, which may be shared by multiple strategies with different names
+     */
+    public CachingSolveStrategy(String name, SolveStrategy strategy, SolutionCache cache) {
+        this.name = name;
+        this.strategy = strategy;
+        this.cache = cache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode) || start.isGoal()) {
+            return strategy.solve(start, context);
+        }
+        PuzzleNode cached = cache.lookup(name, (PuzzleNode) start);
+        if (cached != null) {
+            return (Node<T>) cached;
+        }
+        Node<T> result = strategy.solve(start, context);
+        if (result != null) {
+            cache.put(name, (PuzzleNode) result);
+        }
+        return result;
+    }
+
+}
@@ -4,18 +4,59 @@ import de.junaeisenhauer.puzzlesolver.algorithm.Node;
 
 import java.util.List;
 
+/**
+ * Depth search which prunes states already visited with lower or equal costs by a {@link TranspositionTable}.
+ */
 public class DepthSearch implements SolveStrategy {
+
+    private final long transpositionTableBytes;
+
+    public DepthSearch() {
+        this(TranspositionTable.DEFAULT_MAX_MEMORY_BYTES);
+    }
+
+    /**
+     * @param transpositionTableBytes the maximum memory of the transposition table, 0 to search without one
+     */
+    public DepthSearch(long transpositionTableBytes) {
+        if (transpositionTableBytes < 0) {
+            throw new IllegalArgumentException("The memory of the transposition table must not be negative");
+        }
+        this.transpositionTableBytes = transpositionTableBytes;
+    }
+
     @Override
-    public <T> Node<T> solve(Node<T> node) {
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        TranspositionTable table = transpositionTableBytes > 0 ? new TranspositionTable(transpositionTableBytes) : null;
+        if (table != null) {
+            table.visit(start.getStateKey(), 0);
+        }
+        return depthSearch(start, 0, table, context);
+    }
+
+    private <T> Node<T> depthSearch(Node<T> node, int depth, TranspositionTable table, SearchContext context) {
         if (node.isGoal()) {
             return node;
         }
+        if (context.isStopped()) {
+            return null;
+        }
+        context.offerPartialResult(node);
 
         List<Node<T>> children = node.getChildren();
+        context.expanded(children.size());
         while (!children.isEmpty()) {
-            Node<T> result = solve(children.get(0));
-            if (result != null) {
-                return result;
+            Node<T> child = children.get(0);
+            if (table != null && table.visit(child.getStateKey(), depth + 1)) {
+                context.prunedDuplicate();
+            } else {
+                Node<T> result = depthSearch(child, depth + 1, table, context);
+                if (result != null) {
+                    return result;
+                }
             }
             children.remove(0);
         }
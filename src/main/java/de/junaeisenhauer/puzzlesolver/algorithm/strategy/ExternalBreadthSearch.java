@@ -0,0 +1,634 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Breadth search in external memory for puzzles whose states fit into a single long, which reaches depths whose layers
+ * do not fit into the heap. Each layer, the states of the same depth, is a file of sorted packed states in a scratch
+ * directory, which is read and written through {@link FileChannel file channels}. The heap only holds a sort buffer
+ * of a fixed maximum size and the read buffers of the files.
+ * <p>
+ * A layer is expanded by streaming its file. The children are collected in the sort buffer, which is sorted and
+ * written as a run whenever it is full. The runs are merged into the file of the next layer, which drops duplicates
+ * and the states of the previous layer (delayed duplicate detection). Every move swaps the space with a tile, which
+ * changes the parity of the permutation, so the children of a layer are never in the layer itself and the previous
+ * layer is the only one to check.
+ * <p>
+ * The solution path is traced back from the goal: a parent of a state of a layer is the neighbor which is contained
+ * in the previous layer, which is found by a binary search in its sorted file. {@link #enumerate} searches all layers
+ * without a goal, e.g. to count the states of each depth and the radius of the state space. Other puzzles are solved
+ * by {@link BreadthSearch}.
+ */
+public class ExternalBreadthSearch implements SolveStrategy {
+
+    public static final Path DEFAULT_SCRATCH_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"));
+    /**
+     * The default maximum number of states of the sort buffer, 64 MB.
+     */
+    public static final int DEFAULT_BUFFER_STATES = 1 << 23;
+    /**
+     * The maximum number of farthest states of an {@link Enumeration}.
+     */
+    public static final int MAX_FARTHEST_STATES = 16;
+
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+    private static final int INITIAL_BUFFER_STATES = 1 << 16;
+    /**
+     * The maximum number of runs merged at once, more runs are merged in several passes.
+     */
+    private static final int MAX_MERGED_RUNS = 64;
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+
+    private final Path scratchDirectory;
+    private final int bufferStates;
+
+    /**
+     * Creates the search with the temporary directory of the system and the default sort buffer.
+     */
+    public ExternalBreadthSearch() {
+        this(DEFAULT_SCRATCH_DIRECTORY, DEFAULT_BUFFER_STATES);
+    }
+
+    /**
+     * @param scratchDirectory the directory in which each search creates a directory for its files
+     * @param bufferStates     the maximum number of states of the sort buffer
+     */
+    public ExternalBreadthSearch(Path scratchDirectory, int bufferStates) {
+        if (bufferStates < 1) {
+            throw new IllegalArgumentException("The sort buffer must hold at least one state");
+        }
+        this.scratchDirectory = scratchDirectory;
+        this.bufferStates = bufferStates;
+    }
+
+    @Override
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        if (!(start instanceof PuzzleNode) || !((PuzzleNode) start).getSize().isPackedInLong()) {
+            return new BreadthSearch().solve(start, context);
+        }
+        try (Search search = new Search((PuzzleNode) start, context)) {
+            return search.solve();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches all layers of the states reachable from a start state. Only the last two layers are kept on disk.
+     *
+     * @param start    the start state
+     * @param context  the context of the search, which may stop it after any layer
+     * @param listener the listener of each completed layer, null if there is none
+     * @return the sizes of the completed layers and the farthest states
+     * @throws IOException if a file of the scratch directory can not be written or read
+     */
+    public Enumeration enumerate(PuzzleNode start, SearchContext context, LayerListener listener)
+            throws IOException {
+        if (!start.getSize().isPackedInLong()) {
+            throw new IllegalArgumentException("The states of size " + start.getSize() + " do not fit into a long");
+        }
+        try (Search search = new Search(start, context)) {
+            return search.enumerate(listener);
+        }
+    }
+
+    /**
+     * The listener of the layers of an {@link #enumerate enumeration}.
+     */
+    public interface LayerListener {
+
+        /**
+         * Called when a layer is completed.
+         *
+         * @param depth  the depth of the layer
+         * @param states the number of states of the layer
+         */
+        void onLayer(int depth, long states);
+
+    }
+
+    /**
+     * The result of an {@link #enumerate enumeration}.
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Enumeration {
+
+        /**
+         * The number of states of each completed layer by depth.
+         */
+        private final long[] layerSizes;
+        /**
+         * The tiles of the first {@link #MAX_FARTHEST_STATES} states of the last layer.
+         */
+        private final List<int[]> farthestStates;
+        /**
+         * If all layers have been searched, false if the search has been stopped.
+         */
+        private final boolean complete;
+
+        /**
+         * @return the depth of the last layer, the maximum distance of a state from the start if complete
+         */
+        public int getRadius() {
+            return layerSizes.length - 1;
+        }
+
+        public long getStateCount() {
+            return Arrays.stream(layerSizes).sum();
+        }
+
+    }
+
+    /**
+     * The files and buffers of a single search, so the strategy itself can be shared.
+     */
+    private class Search implements Closeable {
+
+        private final PuzzleNode start;
+        private final SearchContext context;
+        private final PuzzleBoard board;
+        private final int bitsPerTile;
+        private final long tileMask;
+        private final Path directory;
+        /**
+         * The file of each layer by depth, null once it has been deleted.
+         */
+        private final List<Path> layers = new ArrayList<>();
+        private final List<Long> layerSizes = new ArrayList<>();
+        private final List<Path> runs = new ArrayList<>();
+        private long[] buffer = new long[Math.min(bufferStates, INITIAL_BUFFER_STATES)];
+        private int bufferSize;
+        private long runStates;
+        private long storedStates;
+        private int fileCount;
+
+        private Search(PuzzleNode start, SearchContext context) throws IOException {
+            this.start = start;
+            this.context = context;
+            board = new PuzzleBoard(start);
+            bitsPerTile = start.getSize().getBitsPerTile();
+            tileMask = (1L << bitsPerTile) - 1;
+            Files.createDirectories(scratchDirectory);
+            directory = Files.createTempDirectory(scratchDirectory, "breadth");
+        }
+
+        private <T> Node<T> solve() throws IOException {
+            long goalState = PuzzleNode.createGoal(start.getSize()).getStateKey();
+            addStartLayer();
+            for (int depth = 0; layerSizes.get(depth) > 0; depth++) {
+                if (findState(depth, goalState) != -1) {
+                    return createNode(depth, goalState);
+                }
+                if (!expand(depth)) {
+                    offerPartialResult(depth);
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private Enumeration enumerate(LayerListener listener) throws IOException {
+            addStartLayer();
+            if (listener != null) {
+                listener.onLayer(0, 1);
+            }
+            int depth = 0;
+            boolean complete = true;
+            while (true) {
+                if (!expand(depth)) {
+                    complete = false;
+                    break;
+                }
+                // the previous layer is not needed for the layers to come
+                if (depth > 0) {
+                    deleteLayer(depth - 1);
+                }
+                long size = layerSizes.get(depth + 1);
+                if (size == 0) {
+                    break;
+                }
+                depth++;
+                if (listener != null) {
+                    listener.onLayer(depth, size);
+                }
+            }
+
+            List<int[]> farthestStates = new ArrayList<>();
+            try (StateReader reader = new StateReader(layers.get(depth))) {
+                while (reader.hasNext() && farthestStates.size() < MAX_FARTHEST_STATES) {
+                    int[] tiles = new int[board.getLength()];
+                    getTiles(reader.next(), tiles);
+                    farthestStates.add(tiles);
+                }
+            }
+            long[] sizes = new long[depth + 1];
+            for (int i = 0; i <= depth; i++) {
+                sizes[i] = layerSizes.get(i);
+            }
+            return new Enumeration(sizes, farthestStates, complete);
+        }
+
+        private void addStartLayer() throws IOException {
+            Path layer = createFile("layer-0");
+            try (StateWriter writer = new StateWriter(layer)) {
+                writer.write(start.getStateKey());
+            }
+            layers.add(layer);
+            layerSizes.add(1L);
+            storedStates = 1;
+        }
+
+        /**
+         * Expands all states of a layer and merges their children into the next layer.
+         *
+         * @return false if the search has been stopped before the next layer is complete
+         */
+        private boolean expand(int depth) throws IOException {
+            try (StateReader reader = new StateReader(layers.get(depth))) {
+                while (reader.hasNext()) {
+                    if (context.isStopped()) {
+                        return false;
+                    }
+                    long state = reader.next();
+                    int space = getSpacePosition(state);
+                    int generated = 0;
+                    for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                        int target = board.getNeighbor(space, direction);
+                        if (target == -1) {
+                            continue;
+                        }
+                        generated++;
+                        addChild(move(state, space, target));
+                    }
+                    context.expanded(generated);
+                    context.frontier(runStates + bufferSize, storedStates);
+                }
+            }
+            writeRun();
+
+            while (runs.size() > MAX_MERGED_RUNS) {
+                List<Path> mergedRuns = new ArrayList<>(runs.subList(0, MAX_MERGED_RUNS));
+                runs.subList(0, MAX_MERGED_RUNS).clear();
+                Path run = createFile("run");
+                merge(mergedRuns, null, run);
+                runs.add(run);
+            }
+            Path layer = createFile("layer-" + (depth + 1));
+            long size = merge(runs, depth > 0 ? layers.get(depth - 1) : null, layer);
+            runs.clear();
+            runStates = 0;
+            layers.add(layer);
+            layerSizes.add(size);
+            storedStates += size;
+            return true;
+        }
+
+        private void addChild(long state) throws IOException {
+            if (bufferSize == buffer.length) {
+                if (buffer.length < bufferStates) {
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, bufferStates));
+                } else {
+                    writeRun();
+                }
+            }
+            buffer[bufferSize++] = state;
+        }
+
+        /**
+         * Sorts the sort buffer and writes its states without duplicates as a run.
+         */
+        private void writeRun() throws IOException {
+            if (bufferSize == 0) {
+                return;
+            }
+            Arrays.sort(buffer, 0, bufferSize);
+            Path run = createFile("run");
+            try (StateWriter writer = new StateWriter(run)) {
+                writer.write(buffer[0]);
+                runStates++;
+                for (int i = 1; i < bufferSize; i++) {
+                    if (buffer[i] == buffer[i - 1]) {
+                        context.prunedDuplicate();
+                    } else {
+                        writer.write(buffer[i]);
+                        runStates++;
+                    }
+                }
+            }
+            runs.add(run);
+            bufferSize = 0;
+        }
+
+        /**
+         * Merges sorted runs into a sorted file without duplicates and deletes the runs.
+         *
+         * @param inputs     the runs
+         * @param subtracted the sorted file whose states are dropped, null if there is none
+         * @param output     the merged file
+         * @return the number of states of the merged file
+         */
+        private long merge(List<Path> inputs, Path subtracted, Path output) throws IOException {
+            PriorityQueue<StateReader> queue = new PriorityQueue<>(Comparator.comparingLong(StateReader::peek));
+            List<StateReader> readers = new ArrayList<>();
+            long size = 0;
+            try (StateWriter writer = new StateWriter(output)) {
+                for (Path input : inputs) {
+                    StateReader reader = new StateReader(input);
+                    readers.add(reader);
+                    if (reader.hasNext()) {
+                        queue.add(reader);
+                    }
+                }
+                StateReader previous = null;
+                if (subtracted != null) {
+                    previous = new StateReader(subtracted);
+                    readers.add(previous);
+                }
+
+                boolean first = true;
+                long last = 0;
+                while (!queue.isEmpty()) {
+                    StateReader reader = queue.poll();
+                    long state = reader.next();
+                    if (reader.hasNext()) {
+                        queue.add(reader);
+                    }
+                    if (!first && state == last) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+                    first = false;
+                    last = state;
+                    while (previous != null && previous.hasNext() && previous.peek() < state) {
+                        previous.next();
+                    }
+                    if (previous != null && previous.hasNext() && previous.peek() == state) {
+                        context.prunedDuplicate();
+                        continue;
+                    }
+                    writer.write(state);
+                    size++;
+                }
+            } finally {
+                for (StateReader reader : readers) {
+                    reader.close();
+                }
+            }
+            for (Path input : inputs) {
+                Files.delete(input);
+            }
+            return size;
+        }
+
+        /**
+         * @return the index of the state in the sorted file of the layer, -1 if it is not contained
+         */
+        private long findState(int depth, long state) throws IOException {
+            try (FileChannel channel = FileChannel.open(layers.get(depth), StandardOpenOption.READ)) {
+                return findState(channel, state);
+            }
+        }
+
+        private long findState(FileChannel channel, long state) throws IOException {
+            ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+            long low = 0;
+            long high = channel.size() / Long.BYTES - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                value.clear();
+                while (value.hasRemaining()) {
+                    channel.read(value, middle * Long.BYTES + value.position());
+                }
+                long middleState = value.getLong(0);
+                if (middleState < state) {
+                    low = middle + 1;
+                } else if (middleState > state) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Creates the node object of a state by tracing its parents back through the layers and applying the moves
+         * to the start node.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> Node<T> createNode(int depth, long state) throws IOException {
+            byte[] path = new byte[depth];
+            for (int parentDepth = depth - 1; parentDepth >= 0; parentDepth--) {
+                int space = getSpacePosition(state);
+                long parent = -1;
+                try (FileChannel channel = FileChannel.open(layers.get(parentDepth), StandardOpenOption.READ)) {
+                    for (int direction = 0; direction < DIRECTIONS.length && parent == -1; direction++) {
+                        int target = board.getNeighbor(space, direction);
+                        if (target == -1) {
+                            continue;
+                        }
+                        long neighbor = move(state, space, target);
+                        if (findState(channel, neighbor) != -1) {
+                            parent = neighbor;
+                            // the space of the parent moves back from the target
+                            path[parentDepth] = (byte) PuzzleBoard.opposite(direction);
+                        }
+                    }
+                }
+                if (parent == -1) {
+                    throw new IllegalStateException("No parent of a state in layer " + (parentDepth + 1));
+                }
+                state = parent;
+            }
+            PuzzleNode node = start;
+            for (byte move : path) {
+                node = node.getChild(DIRECTIONS[move]);
+            }
+            return (Node<T>) node;
+        }
+
+        /**
+         * Offers the state of the last completed layer with the lowest heuristic estimation, which is only searched
+         * for when the search is stopped, so the expansions stay free of heuristic evaluations.
+         */
+        private void offerPartialResult(int depth) throws IOException {
+            int[] tiles = new int[board.getLength()];
+            long bestState = 0;
+            int bestEstimation = Integer.MAX_VALUE;
+            try (StateReader reader = new StateReader(layers.get(depth))) {
+                while (reader.hasNext()) {
+                    long state = reader.next();
+                    getTiles(state, tiles);
+                    int estimation = start.getHeuristic().estimate(tiles);
+                    if (estimation < bestEstimation) {
+                        bestEstimation = estimation;
+                        bestState = state;
+                    }
+                }
+            }
+            context.offerPartialResult(createNode(depth, bestState));
+        }
+
+        private int getTile(long state, int position) {
+            return (int) (state >>> (position * bitsPerTile) & tileMask);
+        }
+
+        private void getTiles(long state, int[] tiles) {
+            for (int position = 0; position < tiles.length; position++) {
+                tiles[position] = getTile(state, position);
+            }
+        }
+
+        private int getSpacePosition(long state) {
+            int position = 0;
+            while (getTile(state, position) != 0) {
+                position++;
+            }
+            return position;
+        }
+
+        private long move(long state, int space, int target) {
+            long tile = getTile(state, target);
+            return state ^ tile << (target * bitsPerTile) ^ tile << (space * bitsPerTile);
+        }
+
+        private Path createFile(String prefix) {
+            return directory.resolve(prefix + "-" + fileCount++ + ".bin");
+        }
+
+        private void deleteLayer(int depth) throws IOException {
+            Files.delete(layers.get(depth));
+            layers.set(depth, null);
+            storedStates -= layerSizes.get(depth);
+        }
+
+        /**
+         * Deletes the directory of the search with all its files.
+         */
+        @Override
+        public void close() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+
+    }
+
+    /**
+     * Reads the packed states of a file in order through a buffer.
+     */
+    private static class StateReader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+
+        private StateReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        private boolean hasNext() {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            return buffer.hasRemaining();
+        }
+
+        /**
+         * @return the next state without reading it, only valid if there is a {@link #hasNext() next state}
+         */
+        private long peek() {
+            return buffer.getLong(buffer.position());
+        }
+
+        private long next() {
+            return buffer.getLong();
+        }
+
+        private void fill() {
+            buffer.clear();
+            try {
+                // the buffer holds whole states, because it is filled up to its end or the end of the file
+                int read = 0;
+                while (buffer.hasRemaining() && read != -1) {
+                    read = channel.read(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+    /**
+     * Writes packed states to a new file through a buffer.
+     */
+    private static class StateWriter implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+
+        private StateWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        private void write(long state) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(state);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The counters of a single iteration of an iterative strategy, e.g. IDA*.
+ */
+@AllArgsConstructor
+@Getter
+public class IterationStatistics {
+
+    /**
+     * The depth limit or f-value threshold of the iteration.
+     */
+    private final int threshold;
+    private final long expandedNodes;
+    private final long generatedNodes;
+    private final long durationNanos;
+
+}
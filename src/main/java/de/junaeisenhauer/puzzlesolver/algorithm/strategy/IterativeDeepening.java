@@ -4,30 +4,72 @@ import de.junaeisenhauer.puzzlesolver.algorithm.Node;
 
 import java.util.List;
 
+/**
+ * Iterative deepening depth search. Within an iteration a {@link TranspositionTable} prunes states already visited
+ * with lower or equal costs, their subtree has already been searched with at least the same remaining depth. The
+ * children of a node are generated anew in each iteration, so the memory is proportional to the depth.
+ */
 public class IterativeDeepening implements SolveStrategy {
 
+    private final long transpositionTableBytes;
+
+    public IterativeDeepening() {
+        this(TranspositionTable.DEFAULT_MAX_MEMORY_BYTES);
+    }
+
+    /**
+     * @param transpositionTableBytes the maximum memory of the transposition table, 0 to search without one
+     */
+    public IterativeDeepening(long transpositionTableBytes) {
+        if (transpositionTableBytes < 0) {
+            throw new IllegalArgumentException("The memory of the transposition table must not be negative");
+        }
+        this.transpositionTableBytes = transpositionTableBytes;
+    }
+
     @Override
-    public <T> Node<T> solve(Node<T> start) {
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        TranspositionTable table = transpositionTableBytes > 0 ? new TranspositionTable(transpositionTableBytes) : null;
         int limit = 0;
         Node<T> result;
         do {
-            result = depthSearchB(start, 0, limit);
+            if (table != null) {
+                // the remaining depth of the entries of the previous iteration is too low
+                table.clear();
+                table.visit(start.getStateKey(), 0);
+            }
+            context.iterationStarted(limit);
+            result = depthSearchB(start, 0, limit, table, context);
+            context.iterationFinished();
             limit++;
-        } while (result == null);
+        } while (result == null && !context.isStopped());
         return result;
     }
 
-    private <T> Node<T> depthSearchB(Node<T> node, int depth, int limit) {
+    private <T> Node<T> depthSearchB(Node<T> node, int depth, int limit, TranspositionTable table,
+                                     SearchContext context) {
         if (node.isGoal()) {
             return node;
         }
-        List<Node<T>> children = node.getChildren();
-        while (!children.isEmpty() && depth < limit) {
-            Node<T> result = depthSearchB(children.get(0), depth + 1, limit);
+        if (depth >= limit || context.isStopped()) {
+            return null;
+        }
+        context.offerPartialResult(node);
+        // the children are not cached, so only the current path is kept in memory
+        List<Node<T>> children = node.generateChildren();
+        context.expanded(children.size());
+        for (Node<T> child : children) {
+            if (table != null && table.visit(child.getStateKey(), depth + 1)) {
+                context.prunedDuplicate();
+                continue;
+            }
+            Node<T> result = depthSearchB(child, depth + 1, limit, table, context);
             if (result != null) {
                 return result;
             }
-            children.remove(0);
         }
 
         return null;
@@ -0,0 +1,170 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.DuplicateMoveAutomaton;
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.IncrementalEstimation;
+
+import java.util.Arrays;
+
+/**
+ * IDA* search: a depth search bounded by the costs plus the heuristic estimation, the bound is raised to the
+ * smallest exceeding value after each iteration. The heuristic of the start node is used for the estimation.
+ * The search works on a single {@link PuzzleBoard} which is changed in place, the moves of the current path are kept
+ * in a primitive array. Only the solution path is created as nodes. Move sequences with a shorter or equal alternative
+ * are pruned by a {@link DuplicateMoveAutomaton}. The estimation follows the moves of the board
+ * {@link IncrementalEstimation incrementally}.
+ */
+public class IterativeDeepeningAStarSearch implements SolveStrategy {
+
+    private static final int FOUND = -1;
+    private static final int DIRECTIONS = PuzzleNode.MoveDirection.values().length;
+
+    private final int duplicateLength;
+
+    public IterativeDeepeningAStarSearch() {
+        this(DuplicateMoveAutomaton.DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param duplicateLength the maximum length of the pruned duplicate move sequences, 2 only prunes reverse moves
+     */
+    public IterativeDeepeningAStarSearch(int duplicateLength) {
+        this.duplicateLength = duplicateLength;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("IDA* search requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        PuzzleNode startNode = (PuzzleNode) start;
+        Search search = new Search(new PuzzleBoard(startNode), startNode.getHeuristic(),
+                DuplicateMoveAutomaton.get(duplicateLength), context);
+        int depth = search.solve();
+        if (depth == -1) {
+            if (context.isStopped()) {
+                context.offerPartialResult(createNode(startNode, search.partialPath));
+            }
+            return null;
+        }
+        return (Node<T>) createNode(startNode, Arrays.copyOf(search.path, depth));
+    }
+
+    private static PuzzleNode createNode(PuzzleNode startNode, int[] moves) {
+        PuzzleNode.MoveDirection[] directions = PuzzleNode.MoveDirection.values();
+        PuzzleNode node = startNode;
+        for (int move : moves) {
+            node = node.getChild(directions[move]);
+        }
+        return node;
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private static class Search {
+
+        private final PuzzleBoard board;
+        private final IncrementalEstimation estimation;
+        private final DuplicateMoveAutomaton automaton;
+        private final SearchContext context;
+        private int[] path = new int[0];
+        private int solutionDepth;
+        /**
+         * The moves to the board with the lowest estimation, the partial result if the search is stopped.
+         */
+        private int[] partialPath = new int[0];
+        private int partialEstimation = Integer.MAX_VALUE;
+
+        private Search(PuzzleBoard board, Heuristic heuristic, DuplicateMoveAutomaton automaton,
+                       SearchContext context) {
+            this.board = board;
+            estimation = heuristic.createIncrementalEstimation(board.getTiles());
+            this.automaton = automaton;
+            this.context = context;
+        }
+
+        /**
+         * @return the depth of the solution, -1 if there is none
+         */
+        private int solve() {
+            int threshold = estimation.getEstimation();
+            while (true) {
+                if (path.length <= threshold) {
+                    path = Arrays.copyOf(path, threshold + 1);
+                }
+                context.iterationStarted(threshold);
+                int result = search(0, threshold, DuplicateMoveAutomaton.START);
+                context.iterationFinished();
+                if (result == FOUND) {
+                    return solutionDepth;
+                }
+                if (result == Integer.MAX_VALUE || context.isStopped()) {
+                    return -1;
+                }
+                threshold = result;
+            }
+        }
+
+        /**
+         * @return {@link #FOUND} if the goal has been reached, else the smallest f-value exceeding the threshold
+         */
+        private int search(int costs, int threshold, int automatonState) {
+            if (context.isStopped()) {
+                return Integer.MAX_VALUE;
+            }
+            int heuristicEstimation = estimation.getEstimation();
+            if (heuristicEstimation < partialEstimation) {
+                partialEstimation = heuristicEstimation;
+                partialPath = Arrays.copyOf(path, costs);
+            }
+            int evaluation = costs + heuristicEstimation;
+            if (evaluation > threshold) {
+                return evaluation;
+            }
+            if (heuristicEstimation == 0 && board.isGoal()) {
+                solutionDepth = costs;
+                return FOUND;
+            }
+
+            int min = Integer.MAX_VALUE;
+            int generated = 0;
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                if (!board.canMove(direction)) {
+                    continue;
+                }
+                int nextState = automaton.next(automatonState, direction);
+                if (nextState == DuplicateMoveAutomaton.PRUNED) {
+                    context.prunedDuplicate();
+                    continue;
+                }
+
+                int space = board.getSpacePosition();
+                int tile = board.move(direction);
+                int target = board.getSpacePosition();
+                estimation.move(tile, target, space);
+                generated++;
+                path[costs] = direction;
+                int result = search(costs + 1, threshold, nextState);
+                board.move(PuzzleBoard.opposite(direction));
+                estimation.move(tile, space, target);
+                if (result == FOUND) {
+                    context.expanded(generated);
+                    return FOUND;
+                }
+                min = Math.min(min, result);
+            }
+            context.expanded(generated);
+            return min;
+        }
+
+    }
+
+}
@@ -0,0 +1,302 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Simplified memory-bounded A* search (SMA*). At most the given number of nodes is kept in memory. When the limit is
+ * reached, the leaf with the highest f-value is forgotten and its f-value is backed up to its parent, which
+ * regenerates the leaf once the remembered value becomes the best one again.
+ * The solution is optimal if its path fits into the memory limit, otherwise no solution is returned.
+ */
+public class MemoryBoundedAStarSearch implements SolveStrategy {
+
+    /**
+     * Rough size of a search node including its puzzle node, used to derive the default limit from the heap size.
+     */
+    private static final long ESTIMATED_NODE_BYTES = 256;
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final int maxNodes;
+
+    /**
+     * Creates the search with a limit of a quarter of the maximum heap size.
+     */
+    public MemoryBoundedAStarSearch() {
+        this((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 4 / ESTIMATED_NODE_BYTES));
+    }
+
+    /**
+     * @param maxNodes the maximum number of nodes kept in memory
+     */
+    public MemoryBoundedAStarSearch(int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("At least two nodes are required");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("Memory-bounded A* search requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        return (Node<T>) new Search(maxNodes, context).solve((PuzzleNode) start);
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private static class Search {
+
+        private static final Comparator<SearchNode> ORDER = Comparator
+                .comparingInt((SearchNode node) -> node.key)
+                .thenComparing(Comparator.comparingInt((SearchNode node) -> node.depth).reversed())
+                .thenComparingLong(node -> node.id);
+
+        private final int maxNodes;
+        private final SearchContext context;
+        /**
+         * Nodes which have successors that are not in memory, ordered by the best value of these successors and
+         * deeper nodes first.
+         */
+        private final TreeSet<SearchNode> open = new TreeSet<>(ORDER);
+        /**
+         * Nodes without successors in memory except the root, which are the candidates to be forgotten.
+         */
+        private final TreeSet<SearchNode> leaves = new TreeSet<>(ORDER);
+        private int nodeCount;
+        private long nextId;
+
+        private Search(int maxNodes, SearchContext context) {
+            this.maxNodes = maxNodes;
+            this.context = context;
+        }
+
+        private PuzzleNode solve(PuzzleNode start) {
+            SearchNode root = new SearchNode(null, -1, start, 0, start.getHeuristicEstimation());
+            nodeCount = 1;
+            updateKey(root);
+
+            while (!open.isEmpty() && !context.isStopped()) {
+                SearchNode best = open.first();
+                if (best.key == INFINITE) {
+                    // all remaining paths exceed the memory limit
+                    return null;
+                }
+                if (best.node.isGoal()) {
+                    return best.node;
+                }
+
+                context.offerPartialResult(best.node);
+                int direction = best.getBestMissingDirection();
+                PuzzleNode childNode = best.node.getChild(DIRECTIONS[direction]);
+                int childF;
+                if (!childNode.isGoal() && best.depth + 1 >= maxNodes - 1) {
+                    // the path can not be extended within the memory limit
+                    childF = INFINITE;
+                } else {
+                    int remembered = best.successorF[direction] != SearchNode.UNKNOWN ? best.successorF[direction]
+                            : best.f;
+                    childF = Math.max(remembered, best.depth + 1 + childNode.getHeuristicEstimation());
+                }
+
+                SearchNode child = new SearchNode(best, direction, childNode, best.depth + 1, childF);
+                removeKey(best);
+                best.successors[direction] = child;
+                best.successorF[direction] = SearchNode.UNKNOWN;
+                nodeCount++;
+                updateKey(best);
+                updateKey(child);
+                backup(best);
+
+                while (nodeCount > maxNodes) {
+                    forgetWorstLeaf();
+                }
+                // every step generates a single successor
+                context.expanded(1);
+                context.frontier(open.size(), nodeCount);
+            }
+
+            return null;
+        }
+
+        /**
+         * Recomputes the f-value of a node once the values of all its successors are known and propagates the change
+         * to the ancestors.
+         */
+        private void backup(SearchNode node) {
+            while (node != null) {
+                int min = node.getMinSuccessorF();
+                if (min == SearchNode.UNKNOWN) {
+                    return;
+                }
+                int f = Math.max(node.staticF, min);
+                if (f == node.f) {
+                    return;
+                }
+                node.f = f;
+                updateKey(node);
+                node = node.parent;
+            }
+        }
+
+        private void forgetWorstLeaf() {
+            // the worst leaf is the shallowest one with the highest value, the best node has to stay
+            Iterator<SearchNode> iterator = leaves.descendingIterator();
+            while (iterator.hasNext()) {
+                SearchNode leaf = iterator.next();
+                if (leaf == open.first()) {
+                    continue;
+                }
+
+                iterator.remove();
+                open.remove(leaf);
+                SearchNode parent = leaf.parent;
+                removeKey(parent);
+                parent.successors[leaf.direction] = null;
+                parent.successorF[leaf.direction] = leaf.f;
+                nodeCount--;
+                updateKey(parent);
+                backup(parent);
+                return;
+            }
+            throw new IllegalStateException("No leaf can be forgotten");
+        }
+
+        private void removeKey(SearchNode node) {
+            open.remove(node);
+            leaves.remove(node);
+        }
+
+        /**
+         * Recomputes the key of a node and sorts it into the open list and leaves again. The node must not be
+         * changed while it is sorted in with its old key.
+         */
+        private void updateKey(SearchNode node) {
+            removeKey(node);
+            node.key = node.getMinMissingF();
+            if (node.key != SearchNode.UNKNOWN) {
+                open.add(node);
+            }
+            if (node.parent != null && !node.hasSuccessorsInMemory()) {
+                leaves.add(node);
+            }
+        }
+
+        private class SearchNode {
+
+            private static final int UNKNOWN = -1;
+
+            private final long id = nextId++;
+            private final SearchNode parent;
+            /**
+             * The direction which leads from the parent to this node.
+             */
+            private final int direction;
+            private final PuzzleNode node;
+            private final int depth;
+            private final int staticF;
+            private int f;
+            private int key;
+            private final SearchNode[] successors = new SearchNode[DIRECTIONS.length];
+            /**
+             * The backed up f-value of each forgotten successor, {@link #UNKNOWN} if not generated or in memory.
+             */
+            private final int[] successorF = new int[DIRECTIONS.length];
+            private final boolean[] validDirections = new boolean[DIRECTIONS.length];
+
+            private SearchNode(SearchNode parent, int direction, PuzzleNode node, int depth, int f) {
+                this.parent = parent;
+                this.direction = direction;
+                this.node = node;
+                this.depth = depth;
+                boolean deadEnd = true;
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    successorF[d] = UNKNOWN;
+                    // cycle check of length 2
+                    boolean reverse = node.getMoveDirection() != null
+                            && DIRECTIONS[d] == node.getMoveDirection().getOpposite();
+                    validDirections[d] = !reverse && f != INFINITE && node.canMove(DIRECTIONS[d]);
+                    deadEnd &= !validDirections[d];
+                }
+                // a dead end can never lead to a solution but stays forgettable
+                this.staticF = deadEnd && !node.isGoal() ? INFINITE : f;
+                this.f = staticF;
+            }
+
+            private int getBestMissingDirection() {
+                int bestDirection = -1;
+                int bestF = INFINITE;
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    if (validDirections[d] && successors[d] == null) {
+                        int missingF = successorF[d] != UNKNOWN ? successorF[d] : f;
+                        if (bestDirection == -1 || missingF < bestF) {
+                            bestDirection = d;
+                            bestF = missingF;
+                        }
+                    }
+                }
+                return bestDirection;
+            }
+
+            /**
+             * @return the best value of the successors which are not in memory, {@link #UNKNOWN} if all are
+             */
+            private int getMinMissingF() {
+                if (f == INFINITE) {
+                    return INFINITE;
+                }
+                int min = UNKNOWN;
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    if (validDirections[d] && successors[d] == null) {
+                        int missingF = successorF[d] != UNKNOWN ? successorF[d] : f;
+                        min = min == UNKNOWN ? missingF : Math.min(min, missingF);
+                    }
+                }
+                return min;
+            }
+
+            /**
+             * @return the best value of all successors, {@link #UNKNOWN} if a successor has never been generated
+             */
+            private int getMinSuccessorF() {
+                int min = INFINITE;
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    if (!validDirections[d]) {
+                        continue;
+                    }
+                    if (successors[d] != null) {
+                        min = Math.min(min, successors[d].f);
+                    } else if (successorF[d] != UNKNOWN) {
+                        min = Math.min(min, successorF[d]);
+                    } else {
+                        return UNKNOWN;
+                    }
+                }
+                return min;
+            }
+
+            private boolean hasSuccessorsInMemory() {
+                for (SearchNode successor : successors) {
+                    if (successor != null) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A store of search nodes of puzzles whose states fit into a single long, in parallel primitive arrays instead of node
+ * objects. A node is referenced by its int handle, the index in the arrays, and keeps the handle of its parent and the
+ * direction the space has been moved from the parent. There are no object headers, children lists or unpacked states
+ * per node, and the costs are read from an array instead of walking the parents. The nodes are never removed, so the
+ * handles stay valid; the arrays grow by doubling.
+ * The {@link #createNode(PuzzleNode, int) node objects} are only created for the solution path.
+ */
+public class NodeArena {
+
+    /**
+     * The parent handle of a root node.
+     */
+    public static final int NONE = -1;
+
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
+    @Getter
+    private final int bitsPerTile;
+    private final long tileMask;
+    private long[] states;
+    private int[] parents;
+    private byte[] moves;
+    private int[] costs;
+    private int[] estimations;
+    private int size;
+
+    /**
+     * @param size the puzzle size, whose states have to fit into a single long
+     */
+    public NodeArena(PuzzleNode.PuzzleSize size) {
+        if (!size.isPackedInLong()) {
+            throw new IllegalArgumentException("The states of size " + size + " do not fit into a long");
+        }
+        bitsPerTile = size.getBitsPerTile();
+        tileMask = (1L << bitsPerTile) - 1;
+        int capacity = 1 << 10;
+        states = new long[capacity];
+        parents = new int[capacity];
+        moves = new byte[capacity];
+        costs = new int[capacity];
+        estimations = new int[capacity];
+    }
+
+    /**
+     * Adds a node.
+     *
+     * @param state      the packed state
+     * @param parent     the handle of the parent, {@link #NONE} for a root
+     * @param move       the ordinal of the direction the space has been moved from the parent, ignored for a root
+     * @param cost       the costs from the root
+     * @param estimation the heuristic estimation, 0 if it is not needed
+     * @return the handle of the node
+     */
+    public int add(long state, int parent, int move, int cost, int estimation) {
+        if (size == states.length) {
+            int capacity = size * 2;
+            states = Arrays.copyOf(states, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            moves = Arrays.copyOf(moves, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            estimations = Arrays.copyOf(estimations, capacity);
+        }
+        states[size] = state;
+        parents[size] = parent;
+        moves[size] = (byte) move;
+        costs[size] = cost;
+        estimations[size] = estimation;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getState(int node) {
+        return states[node];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getMove(int node) {
+        return moves[node];
+    }
+
+    public int getCosts(int node) {
+        return costs[node];
+    }
+
+    public int getEstimation(int node) {
+        return estimations[node];
+    }
+
+    /**
+     * Gets a tile of a packed state without unpacking the whole state.
+     *
+     * @param state    the packed state
+     * @param position the position on the board
+     * @return the tile at the position, 0 for the space
+     */
+    public int getTile(long state, int position) {
+        return (int) (state >>> (position * bitsPerTile) & tileMask);
+    }
+
+    /**
+     * Unpacks a state.
+     *
+     * @param state the packed state
+     * @param tiles the array receiving the tile of each position
+     */
+    public void getTiles(long state, int[] tiles) {
+        for (int position = 0; position < tiles.length; position++) {
+            tiles[position] = getTile(state, position);
+        }
+    }
+
+    public int getSpacePosition(long state) {
+        int position = 0;
+        while (getTile(state, position) != 0) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Moves the tile of the target position to the space, like {@link PuzzleNode} does with its packed state.
+     *
+     * @param state  the packed state
+     * @param space  the space position of the state
+     * @param target the position next to the space the space moves to
+     * @return the moved packed state
+     */
+    public long move(long state, int space, int target) {
+        long tile = getTile(state, target);
+        return state ^ tile << (target * bitsPerTile) ^ tile << (space * bitsPerTile);
+    }
+
+    /**
+     * Creates the node object of a node by applying the moves from its root to the node object of the root.
+     *
+     * @param root the node object of the root of the node
+     * @param node the handle of the node
+     * @return the node object whose parents lead back to the root
+     */
+    public PuzzleNode createNode(PuzzleNode root, int node) {
+        int depth = 0;
+        for (int current = node; parents[current] != NONE; current = parents[current]) {
+            depth++;
+        }
+        byte[] path = new byte[depth];
+        for (int current = node; parents[current] != NONE; current = parents[current]) {
+            path[--depth] = moves[current];
+        }
+        PuzzleNode result = root;
+        for (byte move : path) {
+            result = result.getChild(DIRECTIONS[move]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the position the space of a node moves to for a child, the move back to the parent is skipped.
+     *
+     * @param board     the board of the puzzle size, only used for its neighbors
+     * @param node      the handle of the node
+     * @param space     the space position of the node
+     * @param direction the ordinal of the move direction
+     * @return the position the space moves to, -1 if the move leaves the board or leads back to the parent
+     */
+    public int getChildTarget(PuzzleBoard board, int node, int space, int direction) {
+        if (parents[node] != NONE && direction == PuzzleBoard.opposite(moves[node])) {
+            return -1;
+        }
+        return board.getNeighbor(space, direction);
+    }
+
+}
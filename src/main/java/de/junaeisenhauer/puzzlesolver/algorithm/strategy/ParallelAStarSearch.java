@@ -0,0 +1,224 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel A* search which distributes the states over worker threads by their hash (HDA*). Each worker owns the
+ * open and closed list of its states, generated children of other workers are sent to their lock-free mailbox.
+ * A found goal is only a candidate: the search goes on until no worker has a node left which could lead to a
+ * cheaper solution, so the result stays optimal.
+ */
+public class ParallelAStarSearch implements SolveStrategy {
+
+    private final int threads;
+
+    public ParallelAStarSearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelAStarSearch(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.threads = threads;
+    }
+
+    @Override
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!start.isSolvable()) {
+            return null;
+        }
+        return new Search<T>(threads, context).solve(start);
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private static class Search<T> {
+
+        private final List<Worker> workers = new ArrayList<>();
+        private final SearchContext context;
+        /**
+         * Termination counter: messages in the mailboxes plus workers which have nodes left to expand. Work is only
+         * created by counted messages or workers, so once the counter reaches 0 it stays 0.
+         */
+        private final AtomicLong pendingWork = new AtomicLong();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private volatile Node<T> solution;
+        private volatile int solutionCosts = Integer.MAX_VALUE;
+        private volatile Throwable failure;
+
+        private Search(int threads, SearchContext context) {
+            this.context = context;
+            for (int i = 0; i < threads; i++) {
+                workers.add(new Worker(i));
+            }
+        }
+
+        private Node<T> solve(Node<T> start) {
+            send(start);
+
+            Thread[] workerThreads = new Thread[workers.size()];
+            for (int i = 0; i < workerThreads.length; i++) {
+                workerThreads[i] = new Thread(workers.get(i), "ParallelAStarSearch-" + i);
+                workerThreads[i].setDaemon(true);
+                workerThreads[i].start();
+            }
+            try {
+                for (Thread workerThread : workerThreads) {
+                    workerThread.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                // also stops the workers if the solving thread is interrupted or killed
+                stopped.set(true);
+            }
+
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Parallel A* search failed", failure);
+            }
+            if (context.isStopped()) {
+                if (solution != null) {
+                    // the incumbent is not proven to be optimal
+                    context.offerPartialResult(solution);
+                }
+                return null;
+            }
+            return solution;
+        }
+
+        private void send(Node<T> node) {
+            pendingWork.incrementAndGet();
+            workers.get(getOwner(node)).mailbox.add(node);
+        }
+
+        private int getOwner(Node<T> node) {
+            // spread the bits, hash codes of packed states differ mostly in the lower bits
+            int hash = node.hashCode() * 0x9E3779B9;
+            return Math.floorMod(hash ^ hash >>> 16, workers.size());
+        }
+
+        private synchronized void offerSolution(Node<T> node) {
+            if (node.getCosts() < solutionCosts) {
+                solution = node;
+                solutionCosts = node.getCosts();
+            }
+        }
+
+        private class Worker implements Runnable {
+
+            private final int id;
+            private final Queue<Node<T>> mailbox = new ConcurrentLinkedQueue<>();
+            private final PriorityQueue<Node<T>> open = new PriorityQueue<>(AStarSearch.createHeuristicComparator());
+            /**
+             * The lowest costs each state of this worker has been reached with.
+             */
+            private final Map<Node<T>, Integer> costs = new HashMap<>();
+            /**
+             * The counters of this worker, drained into the context.
+             */
+            private final SearchStatistics statistics = new SearchStatistics();
+            private boolean working;
+
+            private Worker(int id) {
+                this.id = id;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    while (!stopped.get() && !context.isStopped() && pendingWork.get() > 0) {
+                        receive();
+                        if (working) {
+                            expand();
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                    stopped.set(true);
+                } finally {
+                    context.drain(statistics);
+                }
+            }
+
+            private void receive() {
+                Node<T> node;
+                while ((node = mailbox.poll()) != null) {
+                    if (!working) {
+                        // count this worker before the message is uncounted, so the counter can not reach 0
+                        working = true;
+                        pendingWork.incrementAndGet();
+                    }
+                    Integer knownCosts = costs.get(node);
+                    if (knownCosts == null || node.getCosts() < knownCosts) {
+                        costs.put(node, node.getCosts());
+                        open.add(node);
+                    } else {
+                        statistics.addPrunedDuplicate();
+                    }
+                    pendingWork.decrementAndGet();
+                }
+            }
+
+            private void expand() {
+                Node<T> node = open.poll();
+                while (node != null && node.getCosts() > costs.get(node)) {
+                    // lazy deletion: the state has been reached again with lower costs
+                    node = open.poll();
+                }
+                if (node == null || node.getHeuristicEstimation() + node.getCosts() >= solutionCosts) {
+                    // no node left which could lead to a cheaper solution
+                    open.clear();
+                    working = false;
+                    pendingWork.decrementAndGet();
+                    return;
+                }
+                if (node.isGoal()) {
+                    offerSolution(node);
+                    return;
+                }
+                context.offerPartialResult(node);
+
+                List<Node<T>> children = node.generateChildren();
+                for (Node<T> child : children) {
+                    if (getOwner(child) != id) {
+                        send(child);
+                        continue;
+                    }
+                    Integer knownCosts = costs.get(child);
+                    if (knownCosts == null || child.getCosts() < knownCosts) {
+                        costs.put(child, child.getCosts());
+                        open.add(child);
+                    } else {
+                        statistics.addPrunedDuplicate();
+                    }
+                }
+                statistics.addExpanded(children.size());
+                statistics.updateFrontier(open.size(), costs.size());
+                if (statistics.getExpandedNodes() >= SearchContext.EXPANSIONS_PER_CHECK) {
+                    context.drain(statistics);
+                }
+            }
+
+        }
+
+    }
+
+}
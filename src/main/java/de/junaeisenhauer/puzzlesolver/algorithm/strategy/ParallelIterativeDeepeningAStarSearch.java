@@ -0,0 +1,296 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.DuplicateMoveAutomaton;
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.IncrementalEstimation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel IDA* search: each iteration is split into subtrees below the split depth which are searched by the
+ * workers of a fork join pool. Idle workers steal subtrees from busy ones. All workers share the minimum f-value
+ * exceeding the threshold for the next iteration and stop as soon as one of them has found the goal.
+ * The first solution is optimal, because an iteration only finds solutions with the costs of its threshold.
+ * Duplicate move sequences are pruned by a {@link DuplicateMoveAutomaton} like in
+ * {@link IterativeDeepeningAStarSearch}.
+ */
+public class ParallelIterativeDeepeningAStarSearch implements SolveStrategy {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 6;
+    private static final int DIRECTIONS = PuzzleNode.MoveDirection.values().length;
+
+    private final int splitDepth;
+    private final int parallelism;
+    private final int duplicateLength;
+
+    public ParallelIterativeDeepeningAStarSearch() {
+        this(DEFAULT_SPLIT_DEPTH, Runtime.getRuntime().availableProcessors(),
+                DuplicateMoveAutomaton.DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param splitDepth      the depth up to which the search tree is split into parallel subtrees
+     * @param parallelism     the number of worker threads
+     * @param duplicateLength the maximum length of the pruned duplicate move sequences, 2 only prunes reverse moves
+     */
+    public ParallelIterativeDeepeningAStarSearch(int splitDepth, int parallelism, int duplicateLength) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("The split depth must not be negative");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.splitDepth = splitDepth;
+        this.parallelism = parallelism;
+        this.duplicateLength = duplicateLength;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("Parallel IDA* search requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        PuzzleNode startNode = (PuzzleNode) start;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Search search = new Search(new PuzzleBoard(startNode), startNode.getHeuristic(),
+                DuplicateMoveAutomaton.get(duplicateLength), context);
+        int[] solution;
+        try {
+            solution = search.solve(pool);
+        } finally {
+            // also stops the workers if the solving thread is interrupted or killed
+            search.stopped.set(true);
+            pool.shutdownNow();
+        }
+        if (solution == null) {
+            if (context.isStopped() && search.partialPath != null) {
+                context.offerPartialResult(createNode(startNode, search.partialPath));
+            }
+            return null;
+        }
+        return (Node<T>) createNode(startNode, solution);
+    }
+
+    private static PuzzleNode createNode(PuzzleNode startNode, int[] moves) {
+        PuzzleNode.MoveDirection[] directions = PuzzleNode.MoveDirection.values();
+        PuzzleNode node = startNode;
+        for (int move : moves) {
+            node = node.getChild(directions[move]);
+        }
+        return node;
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private class Search {
+
+        private final PuzzleBoard start;
+        private final Heuristic heuristic;
+        private final DuplicateMoveAutomaton automaton;
+        private final SearchContext context;
+        private final AtomicInteger nextThreshold = new AtomicInteger();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private volatile int threshold;
+        private volatile int[] solution;
+        /**
+         * The moves to the board with the lowest estimation, the partial result if the search is stopped.
+         */
+        private int[] partialPath;
+        private volatile int partialEstimation = Integer.MAX_VALUE;
+
+        private Search(PuzzleBoard start, Heuristic heuristic, DuplicateMoveAutomaton automaton,
+                       SearchContext context) {
+            this.start = start;
+            this.heuristic = heuristic;
+            this.automaton = automaton;
+            this.context = context;
+        }
+
+        /**
+         * @return the moves of the solution, null if there is none
+         */
+        private int[] solve(ForkJoinPool pool) {
+            threshold = heuristic.estimate(start.getTiles());
+            while (true) {
+                nextThreshold.set(Integer.MAX_VALUE);
+                context.iterationStarted(threshold);
+                pool.invoke(new SubtreeTask(new PuzzleBoard(start), new int[0], DuplicateMoveAutomaton.START));
+                context.iterationFinished();
+                if (solution != null || stopped.get() || context.isStopped()) {
+                    return solution;
+                }
+                if (nextThreshold.get() == Integer.MAX_VALUE) {
+                    return null;
+                }
+                threshold = nextThreshold.get();
+            }
+        }
+
+        private void offerThreshold(int evaluation) {
+            nextThreshold.accumulateAndGet(evaluation, Math::min);
+        }
+
+        private synchronized void offerPartialResult(int[] path, int costs, int estimation) {
+            if (estimation < partialEstimation) {
+                partialEstimation = estimation;
+                partialPath = Arrays.copyOf(path, costs);
+            }
+        }
+
+        private void offerSolution(int[] path, int costs) {
+            if (stopped.compareAndSet(false, true)) {
+                solution = Arrays.copyOf(path, costs);
+            }
+        }
+
+        /**
+         * Searches the subtree of a board. The board and the path are owned by the task.
+         */
+        private class SubtreeTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final PuzzleBoard board;
+            private int[] path;
+            private final int costs;
+            private final int automatonState;
+            /**
+             * The counters of this task, drained into the context.
+             */
+            private final SearchStatistics statistics = new SearchStatistics();
+            /**
+             * The estimation of the board of the sequential search.
+             */
+            private IncrementalEstimation estimation;
+
+            private SubtreeTask(PuzzleBoard board, int[] path, int automatonState) {
+                this.board = board;
+                this.path = path;
+                this.costs = path.length;
+                this.automatonState = automatonState;
+            }
+
+            @Override
+            protected void compute() {
+                if (costs >= splitDepth) {
+                    path = Arrays.copyOf(path, Math.max(costs, threshold) + 1);
+                    estimation = heuristic.createIncrementalEstimation(board.getTiles());
+                    offerThreshold(search(costs, automatonState));
+                    context.drain(statistics);
+                    return;
+                }
+                if (stopped.get() || context.isStopped()) {
+                    return;
+                }
+
+                int heuristicEstimation = heuristic.estimate(board.getTiles());
+                if (heuristicEstimation < partialEstimation) {
+                    offerPartialResult(path, costs, heuristicEstimation);
+                }
+                int evaluation = costs + heuristicEstimation;
+                if (evaluation > threshold) {
+                    offerThreshold(evaluation);
+                    return;
+                }
+                if (heuristicEstimation == 0 && board.isGoal()) {
+                    offerSolution(path, costs);
+                    return;
+                }
+
+                List<SubtreeTask> subtrees = new ArrayList<>(DIRECTIONS);
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    if (!board.canMove(direction)) {
+                        continue;
+                    }
+                    int nextState = automaton.next(automatonState, direction);
+                    if (nextState == DuplicateMoveAutomaton.PRUNED) {
+                        statistics.addPrunedDuplicate();
+                        continue;
+                    }
+                    PuzzleBoard child = new PuzzleBoard(board);
+                    child.move(direction);
+                    int[] childPath = Arrays.copyOf(path, costs + 1);
+                    childPath[costs] = direction;
+                    subtrees.add(new SubtreeTask(child, childPath, nextState));
+                }
+                statistics.addExpanded(subtrees.size());
+                context.drain(statistics);
+                invokeAll(subtrees);
+            }
+
+            /**
+             * Sequential IDA* iteration which changes the board of this task in place.
+             *
+             * @return the smallest f-value exceeding the threshold, {@link Integer#MAX_VALUE} if there is none or
+             * the search has been stopped
+             */
+            private int search(int costs, int automatonState) {
+                if (stopped.get() || context.isStopped()) {
+                    return Integer.MAX_VALUE;
+                }
+                int heuristicEstimation = estimation.getEstimation();
+                if (heuristicEstimation < partialEstimation) {
+                    offerPartialResult(path, costs, heuristicEstimation);
+                }
+                int evaluation = costs + heuristicEstimation;
+                if (evaluation > threshold) {
+                    return evaluation;
+                }
+                if (heuristicEstimation == 0 && board.isGoal()) {
+                    offerSolution(path, costs);
+                    return Integer.MAX_VALUE;
+                }
+
+                int min = Integer.MAX_VALUE;
+                int generated = 0;
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    if (!board.canMove(direction)) {
+                        continue;
+                    }
+                    int nextState = automaton.next(automatonState, direction);
+                    if (nextState == DuplicateMoveAutomaton.PRUNED) {
+                        statistics.addPrunedDuplicate();
+                        continue;
+                    }
+
+                    int space = board.getSpacePosition();
+                    int tile = board.move(direction);
+                    int target = board.getSpacePosition();
+                    estimation.move(tile, target, space);
+                    generated++;
+                    path[costs] = direction;
+                    int result = search(costs + 1, nextState);
+                    board.move(PuzzleBoard.opposite(direction));
+                    estimation.move(tile, space, target);
+                    min = Math.min(min, result);
+                }
+                expanded(generated);
+                return min;
+            }
+
+            private void expanded(int generated) {
+                statistics.addExpanded(generated);
+                if (statistics.getExpandedNodes() >= SearchContext.EXPANSIONS_PER_CHECK) {
+                    context.drain(statistics);
+                }
+            }
+
+        }
+
+    }
+
+}
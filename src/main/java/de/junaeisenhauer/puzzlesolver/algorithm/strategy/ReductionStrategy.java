@@ -0,0 +1,479 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Constructive strategy for large boards which finds a valid but not optimal solution in polynomial time. The board is
+ * reduced one line at a time: the top row is solved while the unsolved region is at least as high as wide, else the
+ * left column. The tiles of a line are moved one step at a time along a shortest path to their goal position, the
+ * space is moved in front of the tile by a breadth search around the solved tiles and the tile itself. The last two
+ * tiles of a line are placed one line further and rotated into place together. Whenever the space can not get in front
+ * of the tile, a breadth search over the positions of the tile and the space finds a local macro. If the second last
+ * tile is trapped in the corner of the line, a breadth search over the positions of both tiles and the space within
+ * the last 3x3 cells of the line finds the macro. The last 2x2 region is solved by a breadth search over its states.
+ */
+public class ReductionStrategy implements SolveStrategy {
+
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
+        if (!(start instanceof PuzzleNode)) {
+            throw new IllegalArgumentException("Reduction strategy requires a puzzle node");
+        }
+        if (!start.isSolvable()) {
+            return null;
+        }
+        PuzzleNode startNode = (PuzzleNode) start;
+        Reduction reduction = new Reduction(new PuzzleBoard(startNode), context);
+        boolean solved = reduction.solve();
+
+        PuzzleNode node = startNode;
+        for (int i = 0; i < reduction.moveCount; i++) {
+            node = node.getChild(DIRECTIONS[reduction.moves[i]]);
+        }
+        if (!solved) {
+            context.offerPartialResult(node);
+            return null;
+        }
+        return (Node<T>) node;
+    }
+
+    /**
+     * The state of a single solve, so the strategy itself can be shared.
+     */
+    private static class Reduction {
+
+        private final PuzzleBoard board;
+        private final SearchContext context;
+        private final int width;
+        private final int height;
+        private final boolean[] fixed;
+        /**
+         * The position of each tile, the space included.
+         */
+        private final int[] positions;
+        private byte[] moves = new byte[64];
+        private int moveCount;
+
+        // reused by the breadth searches over positions
+        private final int[] queue;
+        private final int[] previous;
+        private final int[] visited;
+        private int visitMark;
+
+        private Reduction(PuzzleBoard board, SearchContext context) {
+            this.board = board;
+            this.context = context;
+            width = board.getSize().getWidth();
+            height = board.getSize().getHeight();
+            int length = board.getLength();
+            fixed = new boolean[length];
+            positions = new int[length];
+            for (int position = 0; position < length; position++) {
+                positions[board.getTile(position)] = position;
+            }
+            queue = new int[length];
+            previous = new int[length];
+            visited = new int[length];
+        }
+
+        /**
+         * @return if the board has been solved, false if the search has been stopped
+         */
+        private boolean solve() {
+            int top = 0;
+            int left = 0;
+            while (height - top > 2 || width - left > 2) {
+                if (context.isStopped()) {
+                    return false;
+                }
+                int rows = height - top;
+                int columns = width - left;
+                if (rows > 2 && (rows >= columns || columns <= 2)) {
+                    solveLine(top, left, width, true);
+                    top++;
+                } else {
+                    solveLine(left, top, height, false);
+                    left++;
+                }
+            }
+            solveRegion(top, left);
+            return true;
+        }
+
+        /**
+         * Solves the unsolved part of a row or column.
+         *
+         * @param line  the index of the row or column
+         * @param first the index of the first unsolved cell of the line
+         * @param end   the number of cells of a whole line
+         * @param row   if the line is a row, else it is a column
+         */
+        private void solveLine(int line, int first, int end, boolean row) {
+            for (int i = first; i < end - 2; i++) {
+                place(getPosition(line, i, row));
+            }
+            if (end - first == 1) {
+                place(getPosition(line, first, row));
+                return;
+            }
+
+            int secondLast = getPosition(line, end - 2, row);
+            int last = getPosition(line, end - 1, row);
+            if (board.getTile(secondLast) == secondLast + 1 && board.getTile(last) == last + 1) {
+                fixed[secondLast] = true;
+                fixed[last] = true;
+                return;
+            }
+            // the last tile waits at the second last position, the second last tile next to it in the next line
+            int next = getPosition(line + 1, end - 2, row);
+            requireMoveTile(last + 1, secondLast);
+            fixed[secondLast] = true;
+            if (!moveTile(secondLast + 1, next)) {
+                // the second last tile is trapped in the corner
+                fixed[secondLast] = false;
+                moveTilePair(line, Math.max(first, end - 3), end, row);
+                fixed[secondLast] = true;
+                fixed[last] = true;
+                return;
+            }
+            fixed[next] = true;
+            moveSpace(last);
+            fixed[secondLast] = false;
+            fixed[next] = false;
+            moveSpaceStep(secondLast);
+            moveSpaceStep(next);
+            fixed[secondLast] = true;
+            fixed[last] = true;
+        }
+
+        private int getPosition(int line, int index, boolean row) {
+            return row ? line * width + index : index * width + line;
+        }
+
+        /**
+         * Moves the goal tile of a position there and fixes it.
+         */
+        private void place(int position) {
+            requireMoveTile(position + 1, position);
+            fixed[position] = true;
+        }
+
+        private void requireMoveTile(int tile, int target) {
+            if (!moveTile(tile, target)) {
+                throw new IllegalStateException("Tile " + tile + " can not be moved to position " + target);
+            }
+        }
+
+        /**
+         * Moves a tile to a position without moving fixed tiles.
+         *
+         * @return if the tile could be moved there
+         */
+        private boolean moveTile(int tile, int target) {
+            while (positions[tile] != target) {
+                int tilePosition = positions[tile];
+                int next = getFirstStep(tilePosition, target);
+                // the space has to get in front of the tile without moving it
+                fixed[tilePosition] = true;
+                boolean reachable = moveSpace(next);
+                fixed[tilePosition] = false;
+                if (!reachable) {
+                    return moveTileWithSpace(tile, target);
+                }
+                moveSpaceStep(tilePosition);
+            }
+            return true;
+        }
+
+        /**
+         * @return the first position of a shortest path between two positions around fixed tiles
+         */
+        private int getFirstStep(int start, int target) {
+            // search backwards, so the path leads from the start to the target
+            if (!search(target, start)) {
+                throw new IllegalStateException("Position " + target + " is not reachable");
+            }
+            return previous[start];
+        }
+
+        /**
+         * Moves the space along a shortest path around fixed tiles.
+         *
+         * @return if the target is reachable
+         */
+        private boolean moveSpace(int target) {
+            int space = board.getSpacePosition();
+            if (!search(target, space)) {
+                return false;
+            }
+            for (int position = space; position != target; ) {
+                position = previous[position];
+                moveSpaceStep(position);
+            }
+            return true;
+        }
+
+        /**
+         * Breadth search from a position to another one around fixed tiles, afterwards {@link #previous} leads from
+         * each reached position back to the start.
+         */
+        private boolean search(int start, int target) {
+            visitMark++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited[start] = visitMark;
+            while (head < tail) {
+                int position = queue[head++];
+                if (position == target) {
+                    return true;
+                }
+                for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                    int neighbor = board.getNeighbor(position, direction);
+                    if (neighbor != -1 && !fixed[neighbor] && visited[neighbor] != visitMark) {
+                        visited[neighbor] = visitMark;
+                        previous[neighbor] = position;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Local macro: a breadth search over the positions of the tile and the space, which also finds the moves if
+         * the tile has to be moved aside first.
+         *
+         * @return if the tile could be moved there
+         */
+        private boolean moveTileWithSpace(int tile, int target) {
+            int length = board.getLength();
+            long start = (long) positions[tile] * length + board.getSpacePosition();
+            Map<Long, Long> previousStates = new HashMap<>();
+            previousStates.put(start, -1L);
+            Queue<Long> states = new ArrayDeque<>();
+            states.add(start);
+            Long goal = null;
+            while (!states.isEmpty() && goal == null) {
+                long state = states.poll();
+                int tilePosition = (int) (state / length);
+                int space = (int) (state % length);
+                for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                    int neighbor = board.getNeighbor(space, direction);
+                    if (neighbor == -1 || fixed[neighbor]) {
+                        continue;
+                    }
+                    int movedTilePosition = neighbor == tilePosition ? space : tilePosition;
+                    long nextState = (long) movedTilePosition * length + neighbor;
+                    if (previousStates.putIfAbsent(nextState, state) == null) {
+                        if (movedTilePosition == target) {
+                            goal = nextState;
+                            break;
+                        }
+                        states.add(nextState);
+                    }
+                }
+            }
+            if (goal == null) {
+                return false;
+            }
+            applySpacePath(previousStates, start, goal, length);
+            return true;
+        }
+
+        /**
+         * Local macro for the last two tiles of a line: a breadth search over the positions of both tiles and the
+         * space within the last 3 lines of the last cells of the line.
+         *
+         * @param line  the index of the row or column
+         * @param first the index of the first cell of the window in the line
+         * @param end   the number of cells of a whole line
+         * @param row   if the line is a row, else it is a column
+         */
+        private void moveTilePair(int line, int first, int end, boolean row) {
+            boolean[] window = new boolean[board.getLength()];
+            for (int i = line; i < line + 3; i++) {
+                for (int j = first; j < end; j++) {
+                    int position = getPosition(i, j, row);
+                    window[position] = !fixed[position];
+                }
+            }
+            int secondLast = getPosition(line, end - 2, row);
+            int last = getPosition(line, end - 1, row);
+            int firstTile = secondLast + 1;
+            int secondTile = last + 1;
+            if (!window[positions[firstTile]] || !window[positions[secondTile]]) {
+                throw new IllegalStateException("Tiles " + firstTile + " and " + secondTile + " are not trapped");
+            }
+            // bring the space into the window without moving the tiles
+            fixed[positions[firstTile]] = true;
+            fixed[positions[secondTile]] = true;
+            for (int position = 0; position < window.length && !window[board.getSpacePosition()]; position++) {
+                if (window[position] && !fixed[position]) {
+                    moveSpace(position);
+                }
+            }
+            fixed[positions[firstTile]] = false;
+            fixed[positions[secondTile]] = false;
+
+            int length = board.getLength();
+            long start = ((long) positions[firstTile] * length + positions[secondTile]) * length
+                    + board.getSpacePosition();
+            Map<Long, Long> previousStates = new HashMap<>();
+            previousStates.put(start, -1L);
+            Queue<Long> states = new ArrayDeque<>();
+            states.add(start);
+            while (!states.isEmpty()) {
+                long state = states.poll();
+                int space = (int) (state % length);
+                int secondTilePosition = (int) (state / length % length);
+                int firstTilePosition = (int) (state / length / length);
+                if (firstTilePosition == secondLast && secondTilePosition == last) {
+                    applySpacePath(previousStates, start, state, length);
+                    return;
+                }
+                for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                    int neighbor = board.getNeighbor(space, direction);
+                    if (neighbor == -1 || !window[neighbor]) {
+                        continue;
+                    }
+                    long nextState = ((long) (neighbor == firstTilePosition ? space : firstTilePosition) * length
+                            + (neighbor == secondTilePosition ? space : secondTilePosition)) * length + neighbor;
+                    if (previousStates.putIfAbsent(nextState, state) == null) {
+                        states.add(nextState);
+                    }
+                }
+            }
+            throw new IllegalStateException("Tiles " + firstTile + " and " + secondTile + " can not be placed");
+        }
+
+        /**
+         * Applies the space moves of a breadth search whose states end with the space position.
+         */
+        private void applySpacePath(Map<Long, Long> previousStates, long start, long goal, int length) {
+            int[] path = new int[previousStates.size()];
+            int pathLength = 0;
+            for (long state = goal; state != start; state = previousStates.get(state)) {
+                path[pathLength++] = (int) (state % length);
+            }
+            for (int i = pathLength - 1; i >= 0; i--) {
+                moveSpaceStep(path[i]);
+            }
+        }
+
+        /**
+         * Solves the last region of at most 2x2 positions by a breadth search over its states.
+         */
+        private void solveRegion(int top, int left) {
+            int[] region = new int[(height - top) * (width - left)];
+            int index = 0;
+            for (int y = top; y < height; y++) {
+                for (int x = left; x < width; x++) {
+                    region[index++] = y * width + x;
+                }
+            }
+            int length = board.getLength();
+            int[] goal = new int[region.length];
+            int[] start = new int[region.length];
+            for (int i = 0; i < region.length; i++) {
+                goal[i] = region[i] == length - 1 ? 0 : region[i] + 1;
+                start[i] = board.getTile(region[i]);
+            }
+
+            Map<String, int[]> previousStates = new HashMap<>();
+            Map<String, Integer> spaceMoves = new HashMap<>();
+            Queue<int[]> states = new ArrayDeque<>();
+            previousStates.put(Arrays.toString(start), null);
+            states.add(start);
+            while (!states.isEmpty()) {
+                int[] state = states.poll();
+                if (Arrays.equals(state, goal)) {
+                    applyRegionPath(state, previousStates, spaceMoves, region);
+                    return;
+                }
+                int space = indexOf(state, 0);
+                for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                    int neighbor = indexOf(region, board.getNeighbor(region[space], direction));
+                    if (neighbor == -1) {
+                        continue;
+                    }
+                    int[] nextState = state.clone();
+                    nextState[space] = state[neighbor];
+                    nextState[neighbor] = 0;
+                    String key = Arrays.toString(nextState);
+                    if (!previousStates.containsKey(key)) {
+                        previousStates.put(key, state);
+                        spaceMoves.put(key, region[neighbor]);
+                        states.add(nextState);
+                    }
+                }
+            }
+            throw new IllegalStateException("The last region is not solvable");
+        }
+
+        private void applyRegionPath(int[] goal, Map<String, int[]> previousStates, Map<String, Integer> spaceMoves,
+                                     int[] region) {
+            int[] path = new int[previousStates.size()];
+            int pathLength = 0;
+            for (int[] state = goal; previousStates.get(Arrays.toString(state)) != null;
+                 state = previousStates.get(Arrays.toString(state))) {
+                path[pathLength++] = spaceMoves.get(Arrays.toString(state));
+            }
+            for (int i = pathLength - 1; i >= 0; i--) {
+                moveSpaceStep(path[i]);
+            }
+        }
+
+        private static int indexOf(int[] values, int value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Moves the space to a neighboring position and records the move. A move which undoes the previous one
+         * removes both.
+         */
+        private void moveSpaceStep(int target) {
+            int space = board.getSpacePosition();
+            int direction;
+            if (target == space - width) {
+                direction = PuzzleNode.MoveDirection.UP.ordinal();
+            } else if (target == space + width) {
+                direction = PuzzleNode.MoveDirection.DOWN.ordinal();
+            } else if (target == space + 1) {
+                direction = PuzzleNode.MoveDirection.RIGHT.ordinal();
+            } else {
+                direction = PuzzleNode.MoveDirection.LEFT.ordinal();
+            }
+            int tile = board.move(direction);
+            positions[tile] = space;
+            positions[0] = target;
+
+            if (moveCount > 0 && moves[moveCount - 1] == PuzzleBoard.opposite(direction)) {
+                moveCount--;
+            } else {
+                if (moveCount == moves.length) {
+                    moves = Arrays.copyOf(moves, moveCount * 2);
+                }
+                moves[moveCount++] = (byte) direction;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The limits of a single solve. A limit of 0 means unlimited.
+ */
+@AllArgsConstructor
+@Getter
+public class SearchBudget {
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(0, 0, 0);
+
+    /**
+     * The maximum time from the creation of the context in milliseconds.
+     */
+    private final long timeLimitMillis;
+    private final long maxExpandedNodes;
+    /**
+     * The maximum used heap memory of the whole virtual machine in bytes, which is only checked periodically.
+     */
+    private final long maxMemoryBytes;
+
+}
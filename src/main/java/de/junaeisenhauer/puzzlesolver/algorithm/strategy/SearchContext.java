@@ -0,0 +1,219 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+
+/**
+ * The context of a single solve, which collects the statistics of the search and publishes them periodically to a
+ * listener. It also stops the search when it is cancelled or exceeds its budget. A context must not be shared by
+ * multiple solves.
+ * Sequential strategies report from the searching thread with plain counters. Parallel strategies collect the counters
+ * of each worker in its own {@link SearchStatistics} and {@link #drain(SearchStatistics) drain} them from time to time.
+ * Strategies check {@link #isStopped()} in their loops and return null when stopped. The node closest to the goal
+ * which has been offered as {@link #offerPartialResult(Node) partial result} is kept for the caller.
+ */
+public class SearchContext {
+
+    public static final long DEFAULT_PUBLISH_INTERVAL_MILLIS = 200;
+    /**
+     * The number of expansions between two checks of the clock, so the counting stays cheap.
+     */
+    static final int EXPANSIONS_PER_CHECK = 1024;
+
+    private final SearchListener listener;
+    private final long publishIntervalNanos;
+    private final SearchBudget budget;
+    private final long deadline;
+    private final SearchStatistics statistics = new SearchStatistics();
+    private final long startTime = System.nanoTime();
+    private long nextPublishTime;
+    private int expansionsUntilCheck = EXPANSIONS_PER_CHECK;
+    private volatile StopReason stopReason;
+
+    private Node<?> partialResult;
+    private int partialEstimation = Integer.MAX_VALUE;
+
+    private long iterationStartTime;
+    private long iterationStartExpandedNodes;
+    private long iterationStartGeneratedNodes;
+    private int iterationThreshold;
+
+    /**
+     * Creates a context without a listener and budget.
+     */
+    public SearchContext() {
+        this(null, DEFAULT_PUBLISH_INTERVAL_MILLIS, SearchBudget.UNLIMITED);
+    }
+
+    /**
+     * @param listener              the listener of the progress, null if there is none
+     * @param publishIntervalMillis the minimum time between two progress calls of the listener
+     * @param budget                the limits of the search
+     */
+    public SearchContext(SearchListener listener, long publishIntervalMillis, SearchBudget budget) {
+        this.listener = listener;
+        this.publishIntervalNanos = publishIntervalMillis * 1_000_000;
+        this.budget = budget;
+        nextPublishTime = startTime + publishIntervalNanos;
+        deadline = startTime + budget.getTimeLimitMillis() * 1_000_000;
+    }
+
+    /**
+     * Counts the expansion of a node by the searching thread.
+     *
+     * @param generatedChildren the number of children generated by the expansion
+     */
+    public void expanded(int generatedChildren) {
+        statistics.addExpanded(generatedChildren);
+        if (budget.getMaxExpandedNodes() > 0 && statistics.getExpandedNodes() >= budget.getMaxExpandedNodes()) {
+            stop(StopReason.EXPANSION_LIMIT);
+        }
+        if (--expansionsUntilCheck == 0) {
+            expansionsUntilCheck = EXPANSIONS_PER_CHECK;
+            checkPeriodically();
+        }
+    }
+
+    /**
+     * Stops the search from any thread. The search returns as soon as it checks {@link #isStopped()} the next time.
+     */
+    public void cancel() {
+        stop(StopReason.CANCELLED);
+    }
+
+    /**
+     * @return if the search has to return, because it has been cancelled or has exceeded its budget
+     */
+    public boolean isStopped() {
+        return stopReason != null;
+    }
+
+    /**
+     * @return the reason the search has been stopped, null if it has not been stopped
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Offers a node reached by the search as partial result, which is kept if it has the lowest heuristic estimation
+     * of all offered nodes. Parallel workers should only offer nodes which improve their own best estimation.
+     */
+    public void offerPartialResult(Node<?> node) {
+        // unsynchronized check first, improvements are rare
+        if (node.getHeuristicEstimation() < partialEstimation) {
+            updatePartialResult(node);
+        }
+    }
+
+    /**
+     * Reports a solution of an anytime strategy which is cheaper than the solutions reported before. It replaces the
+     * partial result, so it is kept when the search is stopped, and is passed on to the listener.
+     *
+     * @param solution           the goal node of the solution
+     * @param suboptimalityBound the factor the costs of the solution exceed the optimal costs at most
+     */
+    public void improvedSolution(Node<?> solution, double suboptimalityBound) {
+        synchronized (this) {
+            partialEstimation = solution.getHeuristicEstimation();
+            partialResult = solution;
+        }
+        if (listener != null) {
+            listener.onImprovedSolution(solution, suboptimalityBound);
+        }
+    }
+
+    /**
+     * @return the offered node with the lowest heuristic estimation, null if no node has been offered
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Node<T> getPartialResult() {
+        return (Node<T>) partialResult;
+    }
+
+    /**
+     * Counts a generated node of the searching thread which has been dropped, because its state was already known.
+     */
+    public void prunedDuplicate() {
+        statistics.addPrunedDuplicate();
+    }
+
+    /**
+     * Updates the peak sizes with the current sizes of the searching thread.
+     */
+    public void frontier(long openSize, long closedSize) {
+        statistics.updateFrontier(openSize, closedSize);
+    }
+
+    /**
+     * Adds and resets the counters of a worker thread of a parallel search.
+     */
+    public synchronized void drain(SearchStatistics workerStatistics) {
+        statistics.drain(workerStatistics);
+        long maxExpandedNodes = budget.getMaxExpandedNodes();
+        if (maxExpandedNodes > 0 && statistics.getExpandedNodes() >= maxExpandedNodes) {
+            stop(StopReason.EXPANSION_LIMIT);
+        }
+        checkPeriodically();
+    }
+
+    /**
+     * Marks the start of an iteration of an iterative strategy.
+     *
+     * @param threshold the depth limit or f-value threshold of the iteration
+     */
+    public synchronized void iterationStarted(int threshold) {
+        iterationThreshold = threshold;
+        iterationStartTime = System.nanoTime();
+        iterationStartExpandedNodes = statistics.getExpandedNodes();
+        iterationStartGeneratedNodes = statistics.getGeneratedNodes();
+    }
+
+    /**
+     * Marks the end of the iteration started last. Parallel strategies have to drain all workers before.
+     */
+    public synchronized void iterationFinished() {
+        statistics.addIteration(new IterationStatistics(iterationThreshold,
+                statistics.getExpandedNodes() - iterationStartExpandedNodes,
+                statistics.getGeneratedNodes() - iterationStartGeneratedNodes,
+                System.nanoTime() - iterationStartTime));
+    }
+
+    /**
+     * @return a copy of the current statistics
+     */
+    public synchronized SearchStatistics getStatistics() {
+        return statistics.copy(System.nanoTime() - startTime);
+    }
+
+    private synchronized void updatePartialResult(Node<?> node) {
+        int estimation = node.getHeuristicEstimation();
+        if (estimation < partialEstimation) {
+            partialEstimation = estimation;
+            partialResult = node;
+        }
+    }
+
+    private synchronized void stop(StopReason reason) {
+        if (stopReason == null) {
+            stopReason = reason;
+        }
+    }
+
+    private void checkPeriodically() {
+        long now = System.nanoTime();
+        if (budget.getTimeLimitMillis() > 0 && now - deadline >= 0) {
+            stop(StopReason.TIME_LIMIT);
+        }
+        if (budget.getMaxMemoryBytes() > 0) {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > budget.getMaxMemoryBytes()) {
+                stop(StopReason.MEMORY_LIMIT);
+            }
+        }
+        if (listener != null && now - nextPublishTime >= 0) {
+            nextPublishTime = now + publishIntervalNanos;
+            listener.onProgress(statistics.copy(now - startTime));
+        }
+    }
+
+}
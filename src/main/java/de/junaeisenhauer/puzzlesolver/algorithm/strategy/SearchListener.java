@@ -0,0 +1,28 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+
+/**
+ * Receives the progress of a running search.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Called periodically by the searching thread, so the implementation has to return quickly and has to hand the
+     * statistics over to other threads itself, e.g. to the user interface thread.
+     *
+     * @param statistics a copy of the current statistics
+     */
+    void onProgress(SearchStatistics statistics);
+
+    /**
+     * Called by the searching thread of an anytime strategy as soon as it has found a better solution than before.
+     *
+     * @param solution           the goal node of the solution
+     * @param suboptimalityBound the factor the costs of the solution exceed the optimal costs at most
+     */
+    default void onImprovedSolution(Node<?> solution, double suboptimalityBound) {
+    }
+
+}
@@ -0,0 +1,126 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The counters of a search. Strategies change them through the {@link SearchContext}, which hands out copies to
+ * other threads.
+ */
+@Getter
+public class SearchStatistics {
+
+    /**
+     * The number of nodes whose children have been generated.
+     */
+    private long expandedNodes;
+    private long generatedNodes;
+    /**
+     * The number of generated nodes which have been dropped, because their state was already known.
+     */
+    private long prunedDuplicates;
+    /**
+     * The largest number of nodes waiting for expansion at once. Parallel searches report the largest number of a
+     * single worker.
+     */
+    private long peakOpenSize;
+    /**
+     * The largest number of expanded nodes kept in memory at once, e.g. for duplicate detection.
+     */
+    private long peakClosedSize;
+    /**
+     * The time from the start of the search to the creation of this copy.
+     */
+    private long durationNanos;
+    private List<IterationStatistics> iterations = new ArrayList<>();
+
+    /**
+     * Calculates the effective branching factor b*, the branching factor of a uniform tree of the solution depth with
+     * as many nodes as expanded by the search: N + 1 = 1 + b* + b*^2 + ... + b*^d.
+     *
+     * @param depth the depth of the solution
+     * @return the effective branching factor, 0 if no node has been expanded
+     */
+    public double getEffectiveBranchingFactor(int depth) {
+        if (expandedNodes == 0 || depth <= 0) {
+            return 0;
+        }
+        double low = 1;
+        double high = Math.max(2, expandedNodes);
+        // bisection, the node count of the uniform tree grows monotonically with the branching factor
+        for (int i = 0; i < 100; i++) {
+            double middle = (low + high) / 2;
+            if (countTreeNodes(middle, depth) < expandedNodes + 1) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    public List<IterationStatistics> getIterations() {
+        return Collections.unmodifiableList(iterations);
+    }
+
+    private static double countTreeNodes(double branchingFactor, int depth) {
+        double nodes = 1;
+        double levelNodes = 1;
+        for (int level = 1; level <= depth; level++) {
+            levelNodes *= branchingFactor;
+            nodes += levelNodes;
+        }
+        return nodes;
+    }
+
+    void addExpanded(int generatedChildren) {
+        expandedNodes++;
+        generatedNodes += generatedChildren;
+    }
+
+    void addPrunedDuplicate() {
+        prunedDuplicates++;
+    }
+
+    void updateFrontier(long openSize, long closedSize) {
+        if (openSize > peakOpenSize) {
+            peakOpenSize = openSize;
+        }
+        if (closedSize > peakClosedSize) {
+            peakClosedSize = closedSize;
+        }
+    }
+
+    void addIteration(IterationStatistics iteration) {
+        iterations.add(iteration);
+    }
+
+    /**
+     * Adds the counters of another statistics, e.g. of a worker thread, and resets them.
+     */
+    void drain(SearchStatistics other) {
+        expandedNodes += other.expandedNodes;
+        generatedNodes += other.generatedNodes;
+        prunedDuplicates += other.prunedDuplicates;
+        updateFrontier(other.peakOpenSize, other.peakClosedSize);
+        other.expandedNodes = 0;
+        other.generatedNodes = 0;
+        other.prunedDuplicates = 0;
+    }
+
+    SearchStatistics copy(long durationNanos) {
+        SearchStatistics copy = new SearchStatistics();
+        copy.expandedNodes = expandedNodes;
+        copy.generatedNodes = generatedNodes;
+        copy.prunedDuplicates = prunedDuplicates;
+        copy.peakOpenSize = peakOpenSize;
+        copy.peakClosedSize = peakClosedSize;
+        copy.durationNanos = durationNanos;
+        copy.iterations = new ArrayList<>(iterations);
+        return copy;
+    }
+
+}
@@ -20,7 +20,7 @@ public class ShuffleStrategy implements SolveStrategy {
     }
 
     @Override
-    public <T> Node<T> solve(Node<T> start) {
+    public <T> Node<T> solve(Node<T> start, SearchContext context) {
         Node<T> result = start;
         for (int i = 0; i < shuffleNumber; i++) {
             result = shuffle(result);
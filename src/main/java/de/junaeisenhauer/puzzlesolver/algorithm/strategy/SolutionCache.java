@@ -0,0 +1,281 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded cache of solution paths, shared by {@link CachingSolveStrategy} instances. Every state on a cached path is
+ * cached with the rest of the path, so later solves of any of these states are hits as well. The states are evicted
+ * in least recently used order once the maximum number of states is exceeded.
+ * The states are keyed by their tiles packed with {@link PuzzleNode.PuzzleSize#getBitsPerTile()} bits per tile, so
+ * boards of any size have distinct keys. The cache can be saved to and loaded from a compact binary file: each path
+ * is stored once with its packed start tiles and 2 bits per move.
+ */
+public class SolutionCache {
+
+    public static final Path DEFAULT_FILE =
+            Paths.get(System.getProperty("user.home"), ".puzzlesolver", "solutions.bin");
+    public static final int DEFAULT_MAX_STATES = 100_000;
+
+    /**
+     * The magic number of the file format, version 2 stores the sizes as shorts and the tiles packed.
+     */
+    private static final int MAGIC = 0x50534332;
+    private static final int MOVE_BITS = 2;
+    private static final int MOVES_PER_BYTE = Byte.SIZE / MOVE_BITS;
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
+    private final Map<Key, Suffix> states;
+
+    /**
+     * @param maxStates the maximum number of cached states
+     */
+    public SolutionCache(int maxStates) {
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one state");
+        }
+        states = new LinkedHashMap<Key, Suffix>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Suffix> eldest) {
+                return size() > maxStates;
+            }
+        };
+    }
+
+    /**
+     * Looks up the rest of a cached path from a state.
+     *
+     * @param strategy the name of the strategy which has found the path
+     * @param start    the state to solve
+     * @return the goal node reached from the start node, null if the state is not cached
+     */
+    public synchronized PuzzleNode lookup(String strategy, PuzzleNode start) {
+        Suffix suffix = states.get(new Key(strategy, start.getSize(), pack(start.getSize(), start.getState())));
+        if (suffix == null) {
+            return null;
+        }
+        PuzzleNode node = start;
+        byte[] moves = suffix.path.moves;
+        for (int i = suffix.offset; i < moves.length; i++) {
+            node = node.getChild(DIRECTIONS[moves[i]]);
+        }
+        return node;
+    }
+
+    /**
+     * Adds all states of the path to a goal.
+     *
+     * @param strategy the name of the strategy which has found the path
+     * @param goal     the goal node, its parents lead back to the start
+     */
+    public synchronized void put(String strategy, PuzzleNode goal) {
+        List<PuzzleNode> nodes = new ArrayList<>();
+        for (Node<int[]> node = goal; node != null; node = node.getParent()) {
+            nodes.add((PuzzleNode) node);
+        }
+        Collections.reverse(nodes);
+        byte[] moves = new byte[nodes.size() - 1];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) nodes.get(i + 1).getMoveDirection().ordinal();
+        }
+        CachedPath path = new CachedPath(strategy, goal.getSize(), pack(goal.getSize(), nodes.get(0).getState()), moves);
+        for (int i = 0; i < moves.length; i++) {
+            add(new Key(strategy, path.size, pack(path.size, nodes.get(i).getState())), new Suffix(path, i));
+        }
+    }
+
+    /**
+     * @return the number of cached states
+     */
+    public synchronized int size() {
+        return states.size();
+    }
+
+    /**
+     * Loads the paths of a file saved before. The loaded states are the most recently used ones afterwards.
+     *
+     * @param file the cache file
+     * @throws IOException if the file can not be read or is no cache file
+     */
+    public synchronized void load(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("No solution cache file: " + file);
+            }
+            int pathCount = input.readInt();
+            for (int i = 0; i < pathCount; i++) {
+                String strategy = input.readUTF();
+                PuzzleNode.PuzzleSize size = new PuzzleNode.PuzzleSize(input.readUnsignedShort(),
+                        input.readUnsignedShort());
+                long[] tiles = new long[getPackedLength(size)];
+                for (int j = 0; j < tiles.length; j++) {
+                    tiles[j] = input.readLong();
+                }
+                byte[] moves = new byte[input.readInt()];
+                byte[] packedMoves = new byte[(moves.length + MOVES_PER_BYTE - 1) / MOVES_PER_BYTE];
+                input.readFully(packedMoves);
+                for (int j = 0; j < moves.length; j++) {
+                    int shift = j % MOVES_PER_BYTE * MOVE_BITS;
+                    moves[j] = (byte) (packedMoves[j / MOVES_PER_BYTE] >>> shift & (1 << MOVE_BITS) - 1);
+                }
+                addPath(new CachedPath(strategy, size, tiles, moves));
+            }
+        }
+    }
+
+    /**
+     * Saves all paths with at least one cached state, from the least to the most recently used one. The file is
+     * replaced atomically.
+     *
+     * @param file the cache file
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void save(Path file) throws IOException {
+        // a path is ordered by its most recently used state
+        Set<CachedPath> paths = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<CachedPath> orderedPaths = new ArrayList<>();
+        List<Suffix> suffixes = new ArrayList<>(states.values());
+        for (int i = suffixes.size() - 1; i >= 0; i--) {
+            if (paths.add(suffixes.get(i).path)) {
+                orderedPaths.add(suffixes.get(i).path);
+            }
+        }
+        Collections.reverse(orderedPaths);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // write to a temporary file first, so an interrupted write does not leave a broken file behind
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(orderedPaths.size());
+            for (CachedPath path : orderedPaths) {
+                output.writeUTF(path.strategy);
+                output.writeShort(path.size.getWidth());
+                output.writeShort(path.size.getHeight());
+                for (long word : path.tiles) {
+                    output.writeLong(word);
+                }
+                output.writeInt(path.moves.length);
+                byte[] packedMoves = new byte[(path.moves.length + MOVES_PER_BYTE - 1) / MOVES_PER_BYTE];
+                for (int j = 0; j < path.moves.length; j++) {
+                    packedMoves[j / MOVES_PER_BYTE] |= path.moves[j] << j % MOVES_PER_BYTE * MOVE_BITS;
+                }
+                output.write(packedMoves);
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void addPath(CachedPath path) {
+        PuzzleNode node = new PuzzleNode(null, path.size, unpack(path.size, path.tiles), null);
+        for (int i = 0; i < path.moves.length; i++) {
+            add(new Key(path.strategy, path.size, pack(path.size, node.getState())), new Suffix(path, i));
+            node = node.getChild(DIRECTIONS[path.moves[i]]);
+        }
+    }
+
+    /**
+     * Caches a suffix unless the state is already cached with a shorter or equal rest of the path.
+     */
+    private void add(Key key, Suffix suffix) {
+        Suffix cached = states.get(key);
+        if (cached == null || cached.getLength() > suffix.getLength()) {
+            states.put(key, suffix);
+        }
+    }
+
+    private static int getPackedLength(PuzzleNode.PuzzleSize size) {
+        return (size.getWidth() * size.getHeight() * size.getBitsPerTile() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Packs the tiles into longs, a tile may span two longs.
+     */
+    private static long[] pack(PuzzleNode.PuzzleSize size, int[] tiles) {
+        int bitsPerTile = size.getBitsPerTile();
+        long[] packed = new long[getPackedLength(size)];
+        for (int i = 0; i < tiles.length; i++) {
+            int bit = i * bitsPerTile;
+            packed[bit / Long.SIZE] |= (long) tiles[i] << bit % Long.SIZE;
+            if (bit % Long.SIZE + bitsPerTile > Long.SIZE) {
+                packed[bit / Long.SIZE + 1] |= (long) tiles[i] >>> (Long.SIZE - bit % Long.SIZE);
+            }
+        }
+        return packed;
+    }
+
+    private static int[] unpack(PuzzleNode.PuzzleSize size, long[] packed) {
+        int bitsPerTile = size.getBitsPerTile();
+        long tileMask = (1L << bitsPerTile) - 1;
+        int[] tiles = new int[size.getWidth() * size.getHeight()];
+        for (int i = 0; i < tiles.length; i++) {
+            int bit = i * bitsPerTile;
+            long tile = packed[bit / Long.SIZE] >>> bit % Long.SIZE;
+            if (bit % Long.SIZE + bitsPerTile > Long.SIZE) {
+                tile |= packed[bit / Long.SIZE + 1] << (Long.SIZE - bit % Long.SIZE);
+            }
+            tiles[i] = (int) (tile & tileMask);
+        }
+        return tiles;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class Key {
+        private final String strategy;
+        private final PuzzleNode.PuzzleSize size;
+        private final long[] tiles;
+    }
+
+    /**
+     * A cached path, shared by the suffixes of all its states.
+     */
+    @AllArgsConstructor
+    private static class CachedPath {
+        private final String strategy;
+        private final PuzzleNode.PuzzleSize size;
+        /**
+         * The packed tiles of the start of the path.
+         */
+        private final long[] tiles;
+        /**
+         * The ordinal of the move direction of each move.
+         */
+        private final byte[] moves;
+    }
+
+    /**
+     * The rest of a path from the state with the given number of moves from its start.
+     */
+    @AllArgsConstructor
+    private static class Suffix {
+        private final CachedPath path;
+        private final int offset;
+
+        private int getLength() {
+            return path.moves.length - offset;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Registry of all solve strategies by a short name, e.g. to select a strategy from the command line.
+ * The name is also the suffix of the localization key {@code settings.strategy.<name>}.
+ */
+public final class SolveStrategies {
+
+    private static final Map<String, Supplier<SolveStrategy>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("breadth", BreadthSearch::new);
+        STRATEGIES.put("externalbreadth", ExternalBreadthSearch::new);
+        STRATEGIES.put("bidirectional", BidirectionalBreadthSearch::new);
+        STRATEGIES.put("depth", DepthSearch::new);
+        STRATEGIES.put("iterative", IterativeDeepening::new);
+        STRATEGIES.put("astar", AStarSearch::new);
+        STRATEGIES.put("idastar", IterativeDeepeningAStarSearch::new);
+        STRATEGIES.put("parallelastar", ParallelAStarSearch::new);
+        STRATEGIES.put("parallelidastar", ParallelIterativeDeepeningAStarSearch::new);
+        STRATEGIES.put("bidirectionalheuristic", BidirectionalHeuristicSearch::new);
+        STRATEGIES.put("memorybounded", MemoryBoundedAStarSearch::new);
+        STRATEGIES.put("weightedastar", () -> new AnytimeRepairingAStarSearch(2, 0));
+        STRATEGIES.put("anytimeastar", AnytimeRepairingAStarSearch::new);
+        STRATEGIES.put("reduction", ReductionStrategy::new);
+    }
+
+    private SolveStrategies() {
+    }
+
+    /**
+     * @return the names of all strategies
+     */
+    public static Set<String> getNames() {
+        return Collections.unmodifiableSet(STRATEGIES.keySet());
+    }
+
+    /**
+     * Creates a new instance of a strategy.
+     *
+     * @param name the name of the strategy
+     * @return the strategy
+     * @throws IllegalArgumentException if there is no strategy with the name
+     */
+    public static SolveStrategy create(String name) {
+        Supplier<SolveStrategy> strategy = STRATEGIES.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown strategy " + name);
+        }
+        return strategy.get();
+    }
+
+}
@@ -12,8 +12,21 @@ public interface SolveStrategy {
      * Solves a problem with a start node.
      *
      * @param start the start node of the problem
-     * @return the goal node with it's parent to reproduce the path of the solution
+     * @return the goal node with it's parent to reproduce the path of the solution, null if there is no solution,
+     * e.g. because the start is not {@link Node#isSolvable() solvable}
      */
-    <T> Node<T> solve(Node<T> start);
+    default <T> Node<T> solve(Node<T> start) {
+        return solve(start, new SearchContext());
+    }
+
+    /**
+     * Solves a problem with a start node and reports the statistics of the search to the context.
+     *
+     * @param start   the start node of the problem
+     * @param context the context of this solve
+     * @return the goal node with it's parent to reproduce the path of the solution, null if there is no solution,
+     * e.g. because the start is not {@link Node#isSolvable() solvable}
+     */
+    <T> Node<T> solve(Node<T> start, SearchContext context);
 
 }
@@ -0,0 +1,100 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from packed states to the handles of their nodes in a {@link NodeArena}, e.g. to detect duplicates. The
+ * entries are stored in an open addressed table of primitive arrays, which grows by doubling, so an entry takes
+ * 12 bytes and a fill factor of at least 3/8 instead of a map entry with a boxed key and value.
+ */
+public class StateIndex {
+
+    /**
+     * The handle of a state which is not contained in the index.
+     */
+    public static final int MISSING = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private long[] states;
+    /**
+     * The handle of each slot, {@link #MISSING} marks an empty slot, so a packed state of 0 needs no special
+     * treatment.
+     */
+    private int[] handles;
+    private int mask;
+    private int size;
+
+    public StateIndex() {
+        states = new long[INITIAL_CAPACITY];
+        handles = new int[INITIAL_CAPACITY];
+        Arrays.fill(handles, MISSING);
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Adds a state or replaces the handle of a contained state.
+     *
+     * @param state  the packed state
+     * @param handle the handle of the node of the state
+     */
+    public void put(long state, int handle) {
+        if (size >= (mask + 1) / 4 * 3) {
+            grow();
+        }
+        int slot = index(state);
+        while (handles[slot] != MISSING) {
+            if (states[slot] == state) {
+                handles[slot] = handle;
+                return;
+            }
+            slot = slot + 1 & mask;
+        }
+        states[slot] = state;
+        handles[slot] = handle;
+        size++;
+    }
+
+    /**
+     * @param state the packed state
+     * @return the handle of the node of the state, {@link #MISSING} if the state is not contained
+     */
+    public int get(long state) {
+        for (int slot = index(state); handles[slot] != MISSING; slot = slot + 1 & mask) {
+            if (states[slot] == state) {
+                return handles[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldStates = states;
+        int[] oldHandles = handles;
+        states = new long[oldStates.length * 2];
+        handles = new int[oldHandles.length * 2];
+        Arrays.fill(handles, MISSING);
+        mask = states.length - 1;
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldHandles[i] != MISSING) {
+                int slot = index(oldStates[i]);
+                while (handles[slot] != MISSING) {
+                    slot = slot + 1 & mask;
+                }
+                states[slot] = oldStates[i];
+                handles[slot] = oldHandles[i];
+            }
+        }
+    }
+
+    private int index(long state) {
+        // spread the bits, packed states of neighboring boards differ only in a few bits
+        long hash = state * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+
+}
@@ -0,0 +1,11 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+/**
+ * The reason a search has been stopped before it was finished.
+ */
+public enum StopReason {
+    CANCELLED,
+    TIME_LIMIT,
+    EXPANSION_LIMIT,
+    MEMORY_LIMIT
+}
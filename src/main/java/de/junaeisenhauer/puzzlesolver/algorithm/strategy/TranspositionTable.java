@@ -0,0 +1,110 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import java.util.Arrays;
+
+/**
+ * A lossy transposition table for depth first searches, which stores the lowest costs each state has been reached
+ * with. The states are identified by their {@link de.junaeisenhauer.puzzlesolver.algorithm.Node#getStateKey() key}
+ * in a fixed size open addressed table of primitive arrays, so its memory is capped. If all slots of a probe
+ * sequence are taken, the entry with the highest costs is replaced, because a state reached with lower costs prunes
+ * larger subtrees. Forgotten entries only lead to searching a subtree again.
+ * Entries are tagged with a generation, so {@link #clear()} forgets all entries in constant time, e.g. for the next
+ * iteration of an iterative deepening search.
+ */
+public class TranspositionTable {
+
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 16L * 1024 * 1024;
+
+    private static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES;
+    private static final int PROBES = 4;
+    private static final int COSTS_BITS = 24;
+    private static final int MAX_COSTS = (1 << COSTS_BITS) - 1;
+    private static final int MAX_GENERATION = (1 << Integer.SIZE - COSTS_BITS) - 1;
+
+    private final long[] keys;
+    /**
+     * The generation in the upper 8 bits and the costs in the lower 24 bits, 0 for empty slots.
+     */
+    private final int[] entries;
+    private final int mask;
+    private int generation = 1;
+
+    /**
+     * @param maxMemoryBytes the maximum memory of the table, which uses the largest power of two number of slots
+     *                       fitting into it
+     */
+    public TranspositionTable(long maxMemoryBytes) {
+        long slots = Long.highestOneBit(Math.max(PROBES, maxMemoryBytes / BYTES_PER_ENTRY));
+        if (slots > 1 << 30) {
+            slots = 1 << 30;
+        }
+        keys = new long[(int) slots];
+        entries = new int[(int) slots];
+        mask = (int) slots - 1;
+    }
+
+    /**
+     * Records a visit of a state. Costs which exceed the 24 bits of an entry are not recorded.
+     *
+     * @param key   the key of the state
+     * @param costs the costs the state has been reached with
+     * @return if the state has already been visited with at most these costs since the last {@link #clear()}, so
+     * the subtree can be pruned
+     */
+    public boolean visit(long key, int costs) {
+        if (costs > MAX_COSTS) {
+            return false;
+        }
+        int tag = generation << COSTS_BITS;
+        int index = index(key);
+        int replace = -1;
+        int replaceCosts = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = index + probe & mask;
+            int entry = entries[slot];
+            if ((entry & ~MAX_COSTS) != tag) {
+                // empty or of an older generation
+                if (replaceCosts != Integer.MAX_VALUE) {
+                    replace = slot;
+                    replaceCosts = Integer.MAX_VALUE;
+                }
+                continue;
+            }
+            int entryCosts = entry & MAX_COSTS;
+            if (keys[slot] == key) {
+                if (entryCosts <= costs) {
+                    return true;
+                }
+                entries[slot] = tag | costs;
+                return false;
+            }
+            if (entryCosts > replaceCosts) {
+                replace = slot;
+                replaceCosts = entryCosts;
+            }
+        }
+        if (replaceCosts > costs) {
+            keys[replace] = key;
+            entries[replace] = tag | costs;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets all entries.
+     */
+    public void clear() {
+        if (generation == MAX_GENERATION) {
+            Arrays.fill(entries, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private int index(long key) {
+        // spread the bits, packed states of neighboring boards differ only in a few bits
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+
+}
@@ -0,0 +1,283 @@
+package de.junaeisenhauer.puzzlesolver.batch;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.DuplicateMoveAutomaton;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.AdditivePatternDatabase;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.LinearConflict;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.ManhattanDistance;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.MaximumHeuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.WalkingDistance;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.CachingSolveStrategy;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.ExternalBreadthSearch;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.ParallelAStarSearch;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.ParallelIterativeDeepeningAStarSearch;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SearchContext;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SearchBudget;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolutionCache;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategies;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Headless entry point which solves the boards of a file or the standard input with {@link BatchSolver}. With
+ * {@code --enumerate} it counts the states of each depth from a board with {@link ExternalBreadthSearch} instead.
+ */
+public class BatchMain {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: --batch [options]",
+            "  --strategy <name>    one of " + String.join(", ", SolveStrategies.getNames()) + " (default idastar)",
+            "  --heuristic <name>   manhattan, linearconflict, linearconflictplus, walkingdistance, maximum or pdb",
+            "                       (default manhattan)",
+            "  --size <width>x<height>  size of all boards (default square size derived from the tiles)",
+            "  --threads <count>    number of worker threads (default number of processors)",
+            "  --parallelism <count>  worker threads of each parallelastar and parallelidastar search",
+            "                       (default number of processors divided by the threads)",
+            "  --split-depth <depth>  depth up to which parallelidastar splits the search tree into parallel tasks",
+            "                       (default " + ParallelIterativeDeepeningAStarSearch.DEFAULT_SPLIT_DEPTH + ")",
+            "  --time-limit <ms>    maximum time of each solve (default unlimited)",
+            "  --max-expansions <count>  maximum expanded nodes of each solve (default unlimited)",
+            "  --max-memory <MB>    maximum used heap memory during a solve (default unlimited)",
+            "  --cache <file>       solution cache which is loaded before and saved after solving (default none)",
+            "  --input <file>       boards, one per line (default standard input)",
+            "  --output <file>      results, one per line (default standard output)",
+            "  --enumerate <board>  count the states of each depth from the board, goal for the goal of --size,",
+            "                       instead of solving, one line with the depth and the count per depth",
+            "  --scratch <dir>      directory of the layer files of externalbreadth and --enumerate (default "
+                    + ExternalBreadthSearch.DEFAULT_SCRATCH_DIRECTORY + ")",
+            "  --sort-buffer <MB>   sort buffer of externalbreadth and --enumerate (default "
+                    + ExternalBreadthSearch.DEFAULT_BUFFER_STATES * Long.BYTES / 1024 / 1024 + ")");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        String strategyName = "idastar";
+        String heuristicName = "manhattan";
+        PuzzleNode.PuzzleSize size = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path input = null;
+        Path output = null;
+        long timeLimitMillis = 0;
+        long maxExpandedNodes = 0;
+        long maxMemoryBytes = 0;
+        Path cacheFile = null;
+        String enumerateBoard = null;
+        Path scratchDirectory = ExternalBreadthSearch.DEFAULT_SCRATCH_DIRECTORY;
+        int bufferStates = ExternalBreadthSearch.DEFAULT_BUFFER_STATES;
+        int splitDepth = ParallelIterativeDeepeningAStarSearch.DEFAULT_SPLIT_DEPTH;
+        int parallelism = 0;
+
+        SolveStrategy strategy;
+        Function<PuzzleNode.PuzzleSize, Heuristic> heuristicFactory;
+        ExternalBreadthSearch externalSearch;
+        PuzzleNode enumerateStart = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value of " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--strategy":
+                        strategyName = value;
+                        break;
+                    case "--heuristic":
+                        heuristicName = value;
+                        break;
+                    case "--size":
+                        size = PuzzleNode.PuzzleSize.parse(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--parallelism":
+                        parallelism = Integer.parseInt(value);
+                        if (parallelism < 1) {
+                            throw new IllegalArgumentException("The parallelism must be at least 1");
+                        }
+                        break;
+                    case "--split-depth":
+                        splitDepth = Integer.parseInt(value);
+                        break;
+                    case "--time-limit":
+                        timeLimitMillis = Long.parseLong(value);
+                        break;
+                    case "--max-expansions":
+                        maxExpandedNodes = Long.parseLong(value);
+                        break;
+                    case "--max-memory":
+                        maxMemoryBytes = Long.parseLong(value) * 1024 * 1024;
+                        break;
+                    case "--cache":
+                        cacheFile = Paths.get(value);
+                        break;
+                    case "--input":
+                        input = Paths.get(value);
+                        break;
+                    case "--output":
+                        output = Paths.get(value);
+                        break;
+                    case "--enumerate":
+                        enumerateBoard = value;
+                        break;
+                    case "--scratch":
+                        scratchDirectory = Paths.get(value);
+                        break;
+                    case "--sort-buffer":
+                        bufferStates = (int) Math.min(Long.parseLong(value) * 1024 * 1024 / Long.BYTES,
+                                Integer.MAX_VALUE - 8);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread is required");
+            }
+            if (parallelism == 0) {
+                // each worker thread runs its own parallel search, together they should not exceed the processors
+                parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+            }
+            strategy = SolveStrategies.create(strategyName);
+            externalSearch = new ExternalBreadthSearch(scratchDirectory, bufferStates);
+            if (strategy instanceof ExternalBreadthSearch) {
+                strategy = externalSearch;
+            } else if (strategy instanceof ParallelIterativeDeepeningAStarSearch) {
+                strategy = new ParallelIterativeDeepeningAStarSearch(splitDepth, parallelism,
+                        DuplicateMoveAutomaton.DEFAULT_MAX_LENGTH);
+            } else if (strategy instanceof ParallelAStarSearch) {
+                strategy = new ParallelAStarSearch(parallelism);
+            }
+            heuristicFactory = createHeuristicFactory(heuristicName);
+            if (enumerateBoard != null) {
+                if (enumerateBoard.equals("goal")) {
+                    if (size == null) {
+                        throw new IllegalArgumentException("The goal to enumerate requires --size");
+                    }
+                    enumerateStart = PuzzleNode.createGoal(size);
+                } else {
+                    int[] tiles = BatchSolver.parseTiles(enumerateBoard);
+                    enumerateStart = new PuzzleNode(null, BatchSolver.getBoardSize(tiles, size), tiles, null);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        SearchBudget budget = new SearchBudget(timeLimitMillis, maxExpandedNodes, maxMemoryBytes);
+        if (enumerateStart != null) {
+            enumerate(enumerateStart, externalSearch, budget, output);
+            return;
+        }
+
+        SolutionCache cache = null;
+        if (cacheFile != null) {
+            cache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
+            if (Files.exists(cacheFile)) {
+                cache.load(cacheFile);
+            }
+            strategy = new CachingSolveStrategy(strategyName, strategy, cache);
+        }
+
+        BatchSolver solver = new BatchSolver(strategy, heuristicFactory, size, threads, budget, System.err);
+        long startTime = System.currentTimeMillis();
+        try (BufferedReader reader = input != null
+                ? Files.newBufferedReader(input, StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+             Writer writer = createWriter(output)) {
+            solver.run(reader, writer);
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        if (cache != null) {
+            cache.save(cacheFile);
+        }
+        System.err.println("Solved " + solver.getSolvedCount() + " of " + solver.getBoardCount() + " boards in "
+                + duration + " ms");
+    }
+
+    /**
+     * Writes the number of states of each depth from the start, as soon as the depth is completed, and the radius
+     * and the farthest states at the end.
+     */
+    private static void enumerate(PuzzleNode start, ExternalBreadthSearch search, SearchBudget budget, Path output)
+            throws IOException {
+        SearchContext context = new SearchContext(null, SearchContext.DEFAULT_PUBLISH_INTERVAL_MILLIS, budget);
+        long startTime = System.currentTimeMillis();
+        ExternalBreadthSearch.Enumeration enumeration;
+        try (Writer writer = createWriter(output)) {
+            enumeration = search.enumerate(start, context, (depth, states) -> {
+                try {
+                    writer.write(depth + "\t" + states + System.lineSeparator());
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        if (!enumeration.isComplete()) {
+            System.err.println("Stopped by " + context.getStopReason().name().toLowerCase() + " after depth "
+                    + enumeration.getRadius() + " with " + enumeration.getStateCount() + " states in " + duration
+                    + " ms");
+            return;
+        }
+        System.err.println("Radius " + enumeration.getRadius() + " with " + enumeration.getStateCount()
+                + " states in " + duration + " ms");
+        for (int[] tiles : enumeration.getFarthestStates()) {
+            System.err.println("Farthest state: "
+                    + Arrays.stream(tiles).mapToObj(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    private static Writer createWriter(Path output) throws IOException {
+        return output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    private static Function<PuzzleNode.PuzzleSize, Heuristic> createHeuristicFactory(String name) {
+        switch (name) {
+            case "manhattan":
+                return ManhattanDistance::new;
+            case "linearconflict":
+                return LinearConflict::new;
+            case "linearconflictplus":
+                return size -> new LinearConflict(size, true);
+            case "walkingdistance":
+                return WalkingDistance::new;
+            case "maximum":
+                return size -> new MaximumHeuristic(new WalkingDistance(size), new LinearConflict(size, true));
+            case "pdb":
+                return size -> {
+                    try {
+                        return AdditivePatternDatabase.load(size, AdditivePatternDatabase.DEFAULT_DIRECTORY);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown heuristic " + name);
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+package de.junaeisenhauer.puzzlesolver.batch;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.ManhattanDistance;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SearchBudget;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SearchContext;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SearchStatistics;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.SolveStrategy;
+import de.junaeisenhauer.puzzlesolver.algorithm.strategy.StopReason;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Solves a stream of boards on a pool of worker threads without a user interface.
+ * Each input line contains the tiles of one board separated by commas or whitespace, 0 represents the space.
+ * Empty lines and lines starting with # are skipped. For each board a tab separated line is written in input order:
+ * the input line number, the status, the solution depth, the moves of the space (U, D, R, L), the solve time in
+ * milliseconds and the expanded nodes, generated nodes, pruned duplicates, peak open and peak closed size of the
+ * {@link SearchStatistics search statistics}. Only a few boards per thread are read ahead, so the memory stays
+ * constant for any number of boards.
+ */
+public class BatchSolver {
+
+    public static final String STATUS_SOLVED = "solved";
+    /**
+     * The board can not be solved at all.
+     */
+    public static final String STATUS_UNSOLVABLE = "unsolvable";
+    /**
+     * The strategy has not found a solution, e.g. because of a memory limit.
+     */
+    public static final String STATUS_UNSOLVED = "unsolved";
+    public static final String STATUS_INVALID = "invalid";
+    /**
+     * The prefix of the status of a search which has exceeded its budget, followed by the lower case
+     * {@link StopReason}. The depth and moves are the ones of the partial result.
+     */
+    public static final String STATUS_STOPPED_PREFIX = "stopped_";
+    public static final String STATUS_ERROR = "error";
+
+    private static final int BOARDS_IN_FLIGHT_PER_THREAD = 4;
+    private static final String NONE = "-";
+
+    private final SolveStrategy strategy;
+    private final Function<PuzzleNode.PuzzleSize, Heuristic> heuristicFactory;
+    private final PuzzleNode.PuzzleSize size;
+    private final int threads;
+    private final SearchBudget budget;
+    private final PrintStream errors;
+    private final Map<PuzzleNode.PuzzleSize, Heuristic> heuristics = new ConcurrentHashMap<>();
+
+    @Getter
+    private long boardCount;
+    @Getter
+    private long solvedCount;
+
+    /**
+     * @param strategy         the strategy which solves all boards, it is shared by the worker threads
+     * @param heuristicFactory creates the heuristic for a puzzle size, called once per size, the manhattan distance
+     *                         is used if it fails
+     * @param size             the size of all boards, null to derive a square size from the number of tiles
+     * @param threads          the number of worker threads
+     * @param budget           the limits of each single solve
+     * @param errors           the stream to report invalid boards and errors
+     */
+    public BatchSolver(SolveStrategy strategy, Function<PuzzleNode.PuzzleSize, Heuristic> heuristicFactory,
+                       PuzzleNode.PuzzleSize size, int threads, SearchBudget budget, PrintStream errors) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.strategy = strategy;
+        this.heuristicFactory = heuristicFactory;
+        this.size = size;
+        this.threads = threads;
+        this.budget = budget;
+        this.errors = errors;
+    }
+
+    /**
+     * Solves all boards of the input and writes a result line per board. The output is flushed whenever the next
+     * result is not available yet, so finished results are visible while the batch is running.
+     *
+     * @param input  the boards, one per line
+     * @param output the results, one per line
+     */
+    public void run(BufferedReader input, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Deque<Future<Result>> pending = new ArrayDeque<>();
+            int maxPending = threads * BOARDS_IN_FLIGHT_PER_THREAD;
+            long lineNumber = 0;
+            String line;
+            while ((line = input.readLine()) != null) {
+                lineNumber++;
+                String board = line.trim();
+                if (board.isEmpty() || board.startsWith("#")) {
+                    continue;
+                }
+
+                long boardLineNumber = lineNumber;
+                pending.add(executor.submit(() -> solve(boardLineNumber, board)));
+                if (pending.size() >= maxPending) {
+                    write(pending.poll(), output);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), output);
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void write(Future<Result> future, Writer output) throws IOException, InterruptedException {
+        if (!future.isDone()) {
+            output.flush();
+        }
+        Result result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solving a board failed", e.getCause());
+        }
+
+        boardCount++;
+        if (result.status.equals(STATUS_SOLVED)) {
+            solvedCount++;
+        }
+        if (result.message != null) {
+            errors.println("Line " + result.lineNumber + ": " + result.message);
+        }
+        SearchStatistics statistics = result.statistics;
+        output.write(result.lineNumber + "\t" + result.status + "\t" + result.depth + "\t" + result.moves + "\t"
+                + result.duration + "\t" + statistics.getExpandedNodes() + "\t" + statistics.getGeneratedNodes() + "\t"
+                + statistics.getPrunedDuplicates() + "\t" + statistics.getPeakOpenSize() + "\t"
+                + statistics.getPeakClosedSize() + System.lineSeparator());
+    }
+
+    private Result solve(long lineNumber, String board) {
+        SearchContext context = new SearchContext(null, SearchContext.DEFAULT_PUBLISH_INTERVAL_MILLIS, budget);
+        int[] tiles;
+        PuzzleNode.PuzzleSize boardSize;
+        try {
+            tiles = parseTiles(board);
+            boardSize = getBoardSize(tiles, size);
+        } catch (IllegalArgumentException e) {
+            return new Result(lineNumber, STATUS_INVALID, NONE, NONE, 0, context.getStatistics(), e.getMessage());
+        }
+        Heuristic heuristic = heuristics.computeIfAbsent(boardSize, this::createHeuristic);
+        PuzzleNode start = new PuzzleNode(null, boardSize, tiles, null, heuristic);
+        if (!start.isSolvable()) {
+            return new Result(lineNumber, STATUS_UNSOLVABLE, NONE, NONE, 0, context.getStatistics(), null);
+        }
+
+        long startTime = System.nanoTime();
+        Node<int[]> result;
+        try {
+            result = strategy.solve(start, context);
+        } catch (RuntimeException | OutOfMemoryError | StackOverflowError e) {
+            long duration = (System.nanoTime() - startTime) / 1_000_000;
+            return new Result(lineNumber, STATUS_ERROR, NONE, NONE, duration, context.getStatistics(), e.toString());
+        }
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        if (result == null && context.isStopped()) {
+            String status = STATUS_STOPPED_PREFIX + context.getStopReason().name().toLowerCase();
+            Node<int[]> partialResult = context.getPartialResult();
+            if (partialResult == null) {
+                return new Result(lineNumber, status, NONE, NONE, duration, context.getStatistics(), null);
+            }
+            return new Result(lineNumber, status, partialResult.getCosts() + "", getMoves(partialResult), duration,
+                    context.getStatistics(), null);
+        }
+        if (result == null) {
+            return new Result(lineNumber, STATUS_UNSOLVED, NONE, NONE, duration, context.getStatistics(), null);
+        }
+        return new Result(lineNumber, STATUS_SOLVED, result.getCosts() + "", getMoves(result), duration,
+                context.getStatistics(), null);
+    }
+
+    /**
+     * Creates the heuristic of a size. If it can not be built, e.g. because the pattern databases of the size can not
+     * be loaded or its tables do not fit into memory, the failure is reported once and the manhattan distance is used
+     * for all boards of the size.
+     */
+    private Heuristic createHeuristic(PuzzleNode.PuzzleSize boardSize) {
+        try {
+            return heuristicFactory.apply(boardSize);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            errors.println("Using the manhattan distance for size " + boardSize + ": " + e);
+            return new ManhattanDistance(boardSize);
+        }
+    }
+
+    /**
+     * Parses the tiles of a board separated by commas or spaces, 0 for the space.
+     *
+     * @param board the tiles of the board
+     * @return the tiles
+     * @throws IllegalArgumentException if a tile is no number
+     */
+    static int[] parseTiles(String board) {
+        String[] tileTexts = board.split("[,\\s]+");
+        int[] state = new int[tileTexts.length];
+        for (int i = 0; i < tileTexts.length; i++) {
+            state[i] = Integer.parseInt(tileTexts[i]);
+        }
+        return state;
+    }
+
+    /**
+     * Checks the tiles of a board against its size.
+     *
+     * @param state the tiles of the board
+     * @param size  the size of the board, null for the square size derived from the number of tiles
+     * @return the size of the board
+     * @throws IllegalArgumentException if the tiles are no permutation of the board size
+     */
+    static PuzzleNode.PuzzleSize getBoardSize(int[] state, PuzzleNode.PuzzleSize size) {
+        PuzzleNode.PuzzleSize boardSize = size;
+        if (boardSize == null) {
+            int width = (int) Math.round(Math.sqrt(state.length));
+            boardSize = new PuzzleNode.PuzzleSize(width, width);
+        }
+        if (boardSize.getWidth() * boardSize.getHeight() != state.length) {
+            throw new IllegalArgumentException("Expected " + boardSize.getWidth() * boardSize.getHeight()
+                    + " tiles but found " + state.length);
+        }
+        boolean[] found = new boolean[state.length];
+        for (int tile : state) {
+            if (tile < 0 || tile >= state.length || found[tile]) {
+                throw new IllegalArgumentException("The tiles must be a permutation of 0 to " + (state.length - 1));
+            }
+            found[tile] = true;
+        }
+        return boardSize;
+    }
+
+    private static String getMoves(Node<int[]> result) {
+        StringBuilder moves = new StringBuilder();
+        for (Node<int[]> node = result; node.getParent() != null; node = node.getParent()) {
+            moves.append(((PuzzleNode) node).getMoveDirection().name().charAt(0));
+        }
+        return moves.reverse().toString();
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+
+        private final long lineNumber;
+        private final String status;
+        private final String depth;
+        private final String moves;
+        private final long duration;
+        private final SearchStatistics statistics;
+        /**
+         * The reason of an invalid board or an error, null otherwise.
+         */
+        private final String message;
+
+    }
+
+}
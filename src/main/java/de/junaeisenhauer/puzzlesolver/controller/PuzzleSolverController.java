@@ -2,6 +2,12 @@ package de.junaeisenhauer.puzzlesolver.controller;
 
 import de.junaeisenhauer.puzzlesolver.algorithm.Node;
 import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.AdditivePatternDatabase;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.Heuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.LinearConflict;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.ManhattanDistance;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.MaximumHeuristic;
+import de.junaeisenhauer.puzzlesolver.algorithm.heuristic.WalkingDistance;
 import de.junaeisenhauer.puzzlesolver.algorithm.strategy.*;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -16,9 +22,12 @@ import javafx.scene.text.Text;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +53,8 @@ public class PuzzleSolverController {
     @FXML
     private ComboBox<String> algorithm;
     @FXML
+    private ComboBox<String> heuristic;
+    @FXML
     private TextField shuffleCount;
     @FXML
     private Slider tileSpeed;
@@ -52,8 +63,22 @@ public class PuzzleSolverController {
     private Text solveDuration;
     @FXML
     private Text solveDepth;
+    @FXML
+    private Text solveExpanded;
+    @FXML
+    private Text solveGenerated;
+    @FXML
+    private Text solveDuplicates;
+    @FXML
+    private Text solvePeakOpen;
+    @FXML
+    private Text solvePeakClosed;
+    @FXML
+    private Text solveBranchingFactor;
+    @FXML
+    private Text solveIterations;
 
-    private Thread solveThread;
+    private SearchContext solveContext;
     private Thread walkAlongPathThread;
 
     private PuzzleNode.PuzzleSize size;
@@ -62,6 +87,9 @@ public class PuzzleSolverController {
     private TileController[] tileController;
 
     private Map<String, SolveStrategy> strategies;
+    private Map<String, Function<PuzzleNode.PuzzleSize, Heuristic>> heuristics;
+    private Map<PuzzleNode.PuzzleSize, Heuristic> patternDatabases = new ConcurrentHashMap<>();
+    private SolutionCache solutionCache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
 
     @FXML
     public void initialize() {
@@ -85,7 +113,7 @@ public class PuzzleSolverController {
         SolveStrategy strategy = new ShuffleStrategy(shuffleCount);
         disableActionButtons();
         cancel.setDisable(false);
-        solve(strategy, result -> {
+        solve(strategy, ManhattanDistance::new, new SearchContext(), result -> {
             if (result != null) {
                 Stack<Node<int[]>> resultPath = getResultPath(result);
                 walkAlongPath(resultPath, aVoid -> {
@@ -107,34 +135,83 @@ public class PuzzleSolverController {
     @FXML
     public void onSolve(ActionEvent event) {
         SolveStrategy strategy = strategies.get(algorithm.getSelectionModel().getSelectedItem());
-        if (strategy != null) {
+        Function<PuzzleNode.PuzzleSize, Heuristic> heuristicFactory =
+                heuristics.get(heuristic.getSelectionModel().getSelectedItem());
+        if (!currentNode.isSolvable()) {
+            ResourceBundle resourceBundle = ResourceBundle.getBundle("localization/PuzzleSolver");
+            solveDepth.setText(resourceBundle.getString("stats.solve.unsolvable"));
+            return;
+        }
+        if (strategy != null && heuristicFactory != null) {
             disableActionButtons();
             algorithm.setDisable(true);
+            heuristic.setDisable(true);
             progress.setVisible(true);
             cancel.setDisable(false);
+            solveDepth.setText("");
+            displayStatistics(new SearchContext().getStatistics(), 0);
+            // show the progress of long running searches and the solutions of anytime strategies
+            SearchContext context = new SearchContext(new SearchListener() {
+                @Override
+                public void onProgress(SearchStatistics statistics) {
+                    Platform.runLater(() -> {
+                        if (progress.isVisible()) {
+                            displayStatistics(statistics, 0);
+                        }
+                    });
+                }
+
+                @Override
+                public void onImprovedSolution(Node<?> solution, double suboptimalityBound) {
+                    int costs = solution.getCosts();
+                    Platform.runLater(() -> {
+                        if (progress.isVisible()) {
+                            solveDepth.setText(String.format("%d (\u2264 %.2f\u00d7)", costs, suboptimalityBound));
+                        }
+                    });
+                }
+            }, SearchContext.DEFAULT_PUBLISH_INTERVAL_MILLIS, SearchBudget.UNLIMITED);
             long solveStartTime = System.currentTimeMillis();
-            solve(strategy, result -> {
+            solve(strategy, heuristicFactory, context, result -> {
                 long solveFinishTime = System.currentTimeMillis();
-                displaySolveDuration(solveStartTime, solveFinishTime);
-                progress.setVisible(false);
+                SearchStatistics statistics = context.getStatistics();
                 if (result != null) {
-                    Stack<Node<int[]>> resultPath = getResultPath(result);
-                    solveDepth.setText((resultPath.size() - 1) + "");
-                    walkAlongPath(resultPath, aVoid -> {
+                    saveSolutionCache();
+                }
+                // on the FX thread after the queued progress updates, so they can not overwrite the final depth
+                Platform.runLater(() -> {
+                    if (context.getStopReason() == StopReason.CANCELLED) {
+                        // the view has been reset by a cancellation while this update was queued
+                        return;
+                    }
+                    displaySolveDuration(solveStartTime, solveFinishTime);
+                    progress.setVisible(false);
+                    displayStatistics(statistics, result != null ? result.getCosts() : 0);
+                    if (result != null) {
+                        Stack<Node<int[]>> resultPath = getResultPath(result);
+                        solveDepth.setText((resultPath.size() - 1) + "");
+                        walkAlongPath(resultPath, aVoid -> {
+                            enableActionButtons();
+                            algorithm.setDisable(false);
+                            heuristic.setDisable(false);
+                            cancel.setDisable(true);
+                        });
+                    } else {
                         enableActionButtons();
                         algorithm.setDisable(false);
+                        heuristic.setDisable(false);
                         cancel.setDisable(true);
-                    });
-                }
+                    }
+                });
             });
         }
     }
 
     @FXML
     public void onCancel(ActionEvent event) {
-        if (solveThread != null) {
-            solveThread.stop();
-            solveThread = null;
+        if (solveContext != null) {
+            solveContext.cancel();
+            solveContext = null;
         }
         if (walkAlongPathThread != null) {
             walkAlongPathThread.interrupt();
@@ -144,6 +221,7 @@ public class PuzzleSolverController {
         progress.setVisible(false);
         enableActionButtons();
         algorithm.setDisable(false);
+        heuristic.setDisable(false);
         cancel.setDisable(true);
     }
 
@@ -157,14 +235,7 @@ public class PuzzleSolverController {
     }
 
     private Node<int[]> getInitNode(PuzzleNode.PuzzleSize size) {
-        int length = size.getWidth() * size.getHeight();
-        int[] initState = new int[length];
-        for (int i = 0; i < length - 1; i++) {
-            initState[i] = i + 1;
-        }
-        initState[length - 1] = 0;
-
-        return new PuzzleNode(null, size, initState, null);
+        return PuzzleNode.createGoal(size);
     }
 
     private void initializeTiles() {
@@ -194,15 +265,21 @@ public class PuzzleSolverController {
     }
 
     private void initializeSettings() {
-        // grid size
-        TextFormatter<String> gridSizeFormatter =
-                new TextFormatter<>(change -> change.getText().matches("[0-9]*") ? change : null);
+        // grid size, a single number for square grids or width x height, e.g. 4x6
+        TextFormatter<String> gridSizeFormatter = new TextFormatter<>(
+                change -> change.getControlNewText().matches("[0-9]*(x[0-9]*)?") ? change : null);
         gridSize.setTextFormatter(gridSizeFormatter);
         gridSize.setText(size.getWidth() + "");
         gridSize.textProperty().addListener((observableValue, oldText, newText) -> {
-            if (!newText.isEmpty() && !newText.equals(size.getWidth() + "")) {
-                int widthAndHeight = Integer.parseInt(newText);
-                size = new PuzzleNode.PuzzleSize(widthAndHeight, widthAndHeight);
+            PuzzleNode.PuzzleSize newSize;
+            try {
+                newSize = PuzzleNode.PuzzleSize.parse(newText);
+            } catch (IllegalArgumentException ignored) {
+                // incomplete input
+                return;
+            }
+            if (!newSize.equals(size)) {
+                size = newSize;
                 tiles.getChildren().clear();
                 initializeTiles();
 
@@ -216,18 +293,36 @@ public class PuzzleSolverController {
         // algorithms
         ResourceBundle resourceBundle = ResourceBundle.getBundle("localization/PuzzleSolver");
 
+        loadSolutionCache();
         strategies = new HashMap<>();
+        for (String name : SolveStrategies.getNames()) {
+            strategies.put(resourceBundle.getString("settings.strategy." + name),
+                    new CachingSolveStrategy(name, SolveStrategies.create(name), solutionCache));
+        }
         String breadthSearchName = resourceBundle.getString("settings.strategy.breadth");
-        strategies.put(breadthSearchName, new BreadthSearch());
-        strategies.put(resourceBundle.getString("settings.strategy.depth"), new DepthSearch());
-        strategies.put(resourceBundle.getString("settings.strategy.iterative"), new IterativeDeepening());
-        strategies.put(resourceBundle.getString("settings.strategy.astar"), new AStarSearch());
 
         ObservableList<String> strategyItems =
                 FXCollections.observableArrayList(strategies.keySet().stream().sorted().collect(Collectors.toList()));
         algorithm.setItems(strategyItems);
         algorithm.getSelectionModel().select(breadthSearchName);
 
+        // heuristics
+        heuristics = new HashMap<>();
+        String manhattanName = resourceBundle.getString("settings.heuristic.manhattan");
+        heuristics.put(manhattanName, ManhattanDistance::new);
+        heuristics.put(resourceBundle.getString("settings.heuristic.linearconflict"), LinearConflict::new);
+        heuristics.put(resourceBundle.getString("settings.heuristic.linearconflictplus"),
+                size -> new LinearConflict(size, true));
+        heuristics.put(resourceBundle.getString("settings.heuristic.walkingdistance"), this::createWalkingDistance);
+        heuristics.put(resourceBundle.getString("settings.heuristic.maximum"),
+                size -> new MaximumHeuristic(createWalkingDistance(size), new LinearConflict(size, true)));
+        heuristics.put(resourceBundle.getString("settings.heuristic.pdb"), this::loadPatternDatabase);
+
+        ObservableList<String> heuristicItems =
+                FXCollections.observableArrayList(heuristics.keySet().stream().sorted().collect(Collectors.toList()));
+        heuristic.setItems(heuristicItems);
+        heuristic.getSelectionModel().select(manhattanName);
+
         // shuffle count
         TextFormatter<String> shuffleCountFormatter =
                 new TextFormatter<>(change -> change.getText().matches("[0-9]*") ? change : null);
@@ -251,22 +346,71 @@ public class PuzzleSolverController {
         solve.setDisable(true);
     }
 
-    private void solve(SolveStrategy strategy, Consumer<Node<int[]>> callback) {
-        Node<int[]> startNode = new PuzzleNode(null, size, currentNode.getState(), null);
-        solveThread = new Thread(() -> {
+    private void solve(SolveStrategy strategy, Function<PuzzleNode.PuzzleSize, Heuristic> heuristicFactory,
+                       SearchContext context, Consumer<Node<int[]>> callback) {
+        PuzzleNode.PuzzleSize size = this.size;
+        int[] startState = currentNode.getState();
+        solveContext = context;
+        Thread solveThread = new Thread(() -> {
             Node<int[]> result = null;
             try {
-                result = strategy.solve(startNode);
-            } catch (OutOfMemoryError | StackOverflowError e) {
+                // creating the heuristic may take a while, e.g. building pattern databases
+                Node<int[]> startNode = new PuzzleNode(null, size, startState, null, heuristicFactory.apply(size));
+                result = strategy.solve(startNode, context);
+            } catch (RuntimeException | OutOfMemoryError | StackOverflowError e) {
+                // the callback has to run anyway, otherwise the controls stay disabled
                 e.printStackTrace();
             }
 
-            callback.accept(result);
-            solveThread = null;
+            // the view has already been reset by the cancellation
+            if (context.getStopReason() != StopReason.CANCELLED) {
+                callback.accept(result);
+            }
         });
+        solveThread.setDaemon(true);
         solveThread.start();
     }
 
+    private void loadSolutionCache() {
+        if (Files.exists(SolutionCache.DEFAULT_FILE)) {
+            try {
+                solutionCache.load(SolutionCache.DEFAULT_FILE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void saveSolutionCache() {
+        try {
+            solutionCache.save(SolutionCache.DEFAULT_FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Heuristic loadPatternDatabase(PuzzleNode.PuzzleSize size) {
+        return patternDatabases.computeIfAbsent(size, key -> {
+            try {
+                return AdditivePatternDatabase.load(key, AdditivePatternDatabase.DEFAULT_DIRECTORY);
+            } catch (IOException | IllegalArgumentException e) {
+                // the pattern databases of large boards can not be built
+                e.printStackTrace();
+                return new ManhattanDistance(key);
+            }
+        });
+    }
+
+    private Heuristic createWalkingDistance(PuzzleNode.PuzzleSize size) {
+        try {
+            return new WalkingDistance(size);
+        } catch (IllegalArgumentException e) {
+            // the tables of large boards do not fit into memory
+            e.printStackTrace();
+            return new ManhattanDistance(size);
+        }
+    }
+
     private Stack<Node<int[]>> getResultPath(Node<int[]> result) {
         Stack<Node<int[]>> resultPath = new Stack<>();
         while (result != null) {
@@ -330,6 +474,20 @@ public class PuzzleSolverController {
         return tileController[tileId].move(newTilePosition);
     }
 
+    private void displayStatistics(SearchStatistics statistics, int depth) {
+        solveExpanded.setText(statistics.getExpandedNodes() + "");
+        solveGenerated.setText(statistics.getGeneratedNodes() + "");
+        solveDuplicates.setText(statistics.getPrunedDuplicates() + "");
+        solvePeakOpen.setText(statistics.getPeakOpenSize() + "");
+        solvePeakClosed.setText(statistics.getPeakClosedSize() + "");
+        if (depth > 0) {
+            solveBranchingFactor.setText(String.format("%.3f", statistics.getEffectiveBranchingFactor(depth)));
+        } else {
+            solveBranchingFactor.setText("");
+        }
+        solveIterations.setText(statistics.getIterations().size() + "");
+    }
+
     private void displaySolveDuration(long startTime, long finishTime) {
         long duration = finishTime - startTime;
         String timePattern;
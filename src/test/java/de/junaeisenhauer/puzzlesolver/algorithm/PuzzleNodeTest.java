@@ -0,0 +1,124 @@
+package de.junaeisenhauer.puzzlesolver.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the packed states of boards which do not fit into a single long, whose tiles may span two longs.
+ */
+class PuzzleNodeTest {
+
+    private static final PuzzleNode.PuzzleSize[] SIZES = {new PuzzleNode.PuzzleSize(3, 5),
+            new PuzzleNode.PuzzleSize(5, 5), new PuzzleNode.PuzzleSize(4, 6), new PuzzleNode.PuzzleSize(7, 7),
+            new PuzzleNode.PuzzleSize(17, 17)};
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
+    @Test
+    void unpacksEveryTile() {
+        Random random = new Random(42);
+        for (PuzzleNode.PuzzleSize size : SIZES) {
+            int[] tiles = createPermutation(size, random);
+            PuzzleNode node = new PuzzleNode(null, size, tiles, null);
+            assertArrayEquals(tiles, node.getState(), size.toString());
+            for (int position = 0; position < tiles.length; position++) {
+                assertEquals(tiles[position], node.getTile(position), size + " position " + position);
+            }
+        }
+    }
+
+    @Test
+    void movesTilesWhichSpanTwoLongs() {
+        Random random = new Random(42);
+        for (PuzzleNode.PuzzleSize size : SIZES) {
+            assertTrue(size.isPackedInLong() || getSpanningPosition(size) != -1, size.toString());
+            int[] tiles = PuzzleNode.createGoal(size).getState();
+            PuzzleNode node = new PuzzleNode(null, size, tiles, null);
+            int space = tiles.length - 1;
+            for (int move = 0; move < 500; move++) {
+                PuzzleNode.MoveDirection direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+                PuzzleNode child = node.getChild(direction);
+                if (child == null) {
+                    continue;
+                }
+                int target = getTarget(size, space, direction);
+                tiles[space] = tiles[target];
+                tiles[target] = 0;
+                space = target;
+                node = child;
+
+                assertArrayEquals(tiles, node.getState(), size + " move " + move);
+                PuzzleNode unpacked = new PuzzleNode(null, size, tiles.clone(), null);
+                assertEquals(unpacked, node);
+                assertEquals(unpacked.hashCode(), node.hashCode());
+                assertEquals(unpacked.getStateKey(), node.getStateKey());
+            }
+        }
+    }
+
+    @Test
+    void distinguishesStatesWhichOnlyDifferInASpanningTile() {
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(5, 5),
+                new PuzzleNode.PuzzleSize(7, 7)}) {
+            int position = getSpanningPosition(size);
+            int[] tiles = PuzzleNode.createGoal(size).getState();
+            int[] swappedTiles = tiles.clone();
+            swappedTiles[position] = tiles[position + 1];
+            swappedTiles[position + 1] = tiles[position];
+
+            PuzzleNode node = new PuzzleNode(null, size, tiles, null);
+            PuzzleNode swapped = new PuzzleNode(null, size, swappedTiles, null);
+            assertNotEquals(node, swapped);
+            assertNotEquals(node.getStateKey(), swapped.getStateKey());
+            assertFalse(swapped.isGoal());
+            assertEquals(tiles[position + 1], swapped.getTile(position));
+        }
+    }
+
+    /**
+     * @return the first position whose tile starts in one long and ends in the next one, -1 if there is none
+     */
+    private static int getSpanningPosition(PuzzleNode.PuzzleSize size) {
+        int bitsPerTile = size.getBitsPerTile();
+        for (int position = 0; position < size.getWidth() * size.getHeight(); position++) {
+            if (position * bitsPerTile % Long.SIZE + bitsPerTile > Long.SIZE) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static int getTarget(PuzzleNode.PuzzleSize size, int space, PuzzleNode.MoveDirection direction) {
+        switch (direction) {
+            case UP:
+                return space - size.getWidth();
+            case DOWN:
+                return space + size.getWidth();
+            case RIGHT:
+                return space + 1;
+            default:
+                return space - 1;
+        }
+    }
+
+    private static int[] createPermutation(PuzzleNode.PuzzleSize size, Random random) {
+        int[] tiles = new int[size.getWidth() * size.getHeight()];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = i;
+        }
+        for (int i = tiles.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tile = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = tile;
+        }
+        return tiles;
+    }
+
+}
@@ -0,0 +1,33 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.heuristic;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class WalkingDistanceTest {
+
+    @Test
+    void buildsTheTablesOfSmallSizes() {
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(3, 3),
+                new PuzzleNode.PuzzleSize(4, 4), new PuzzleNode.PuzzleSize(3, 5), new PuzzleNode.PuzzleSize(5, 3)}) {
+            PuzzleNode goal = PuzzleNode.createGoal(size);
+            assertEquals(0, new WalkingDistance(size).estimate(goal.getState()));
+        }
+    }
+
+    @Test
+    void rejectsLargeSizesBeforeBuildingTheTables() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(4, 5),
+                    new PuzzleNode.PuzzleSize(5, 4), new PuzzleNode.PuzzleSize(5, 5), new PuzzleNode.PuzzleSize(6, 4)}) {
+                assertThrows(IllegalArgumentException.class, () -> new WalkingDistance(size));
+            }
+        });
+    }
+
+}
@@ -0,0 +1,71 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enumerates and solves small boards with a sort buffer small enough to write many runs, which are merged in several
+ * passes.
+ */
+class ExternalBreadthSearchTest {
+
+    private static final long SEED = 42;
+    private static final int BOARDS = 10;
+    private static final int BUFFER_STATES = 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void enumeratesAllStatesOfTheEightPuzzle() throws IOException {
+        ExternalBreadthSearch search = new ExternalBreadthSearch(directory, BUFFER_STATES);
+        PuzzleNode goal = PuzzleNode.createGoal(new PuzzleNode.PuzzleSize(3, 3));
+        ExternalBreadthSearch.Enumeration enumeration = search.enumerate(goal, new SearchContext(), null);
+
+        assertTrue(enumeration.isComplete());
+        assertEquals(31, enumeration.getRadius());
+        assertEquals(181440, enumeration.getStateCount());
+        // the two states at distance 31
+        assertEquals(2, enumeration.getLayerSizes()[31]);
+        assertEquals(2, enumeration.getFarthestStates().size());
+        assertScratchDirectoryEmpty();
+    }
+
+    @Test
+    void solvesRandomBoardsOptimally() throws IOException {
+        Random random = new Random(SEED);
+        ExternalBreadthSearch search = new ExternalBreadthSearch(directory, BUFFER_STATES);
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(3, 3),
+                new PuzzleNode.PuzzleSize(2, 4)}) {
+            for (int i = 0; i < BOARDS; i++) {
+                PuzzleNode start = IterativeDeepeningAStarSearchTest.createRandomBoard(size, random);
+                Node<int[]> optimal = new AStarSearch().solve(start);
+                Node<int[]> result = search.solve(new PuzzleNode(null, size, start.getState(), null));
+                assertNotNull(result);
+                assertTrue(result.isGoal());
+                assertEquals(optimal.getCosts(), result.getCosts());
+            }
+        }
+        assertScratchDirectoryEmpty();
+    }
+
+    private void assertScratchDirectoryEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.DuplicateMoveAutomaton;
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the solution costs of IDA* with the costs of A*, which are optimal. The duplicate move automaton must never
+ * prune all optimal paths, so the costs of IDA* with pruned duplicates have to be the same.
+ */
+class IterativeDeepeningAStarSearchTest {
+
+    private static final long SEED = 42;
+    private static final int BOARDS_PER_SIZE = 30;
+
+    @Test
+    void solvesRandomBoardsOptimally() {
+        Random random = new Random(SEED);
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(3, 3),
+                new PuzzleNode.PuzzleSize(2, 4), new PuzzleNode.PuzzleSize(4, 2), new PuzzleNode.PuzzleSize(3, 4)}) {
+            for (int i = 0; i < BOARDS_PER_SIZE; i++) {
+                assertOptimal(createRandomBoard(size, random));
+            }
+        }
+    }
+
+    @Test
+    void solvesAllBoardsOfSmallSizesOptimally() {
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(2, 3),
+                new PuzzleNode.PuzzleSize(3, 2)}) {
+            int[] tiles = new int[size.getWidth() * size.getHeight()];
+            permute(size, tiles, 0, new boolean[tiles.length]);
+        }
+    }
+
+    @Test
+    void solvesTheGoal() {
+        PuzzleNode goal = PuzzleNode.createGoal(new PuzzleNode.PuzzleSize(3, 3));
+        Node<int[]> result = new IterativeDeepeningAStarSearch().solve(goal);
+        assertNotNull(result);
+        assertEquals(0, result.getCosts());
+    }
+
+    private static void permute(PuzzleNode.PuzzleSize size, int[] tiles, int position, boolean[] used) {
+        if (position == tiles.length) {
+            PuzzleNode start = new PuzzleNode(null, size, tiles.clone(), null);
+            if (start.isSolvable()) {
+                assertOptimal(start);
+            }
+            return;
+        }
+        for (int tile = 0; tile < tiles.length; tile++) {
+            if (!used[tile]) {
+                used[tile] = true;
+                tiles[position] = tile;
+                permute(size, tiles, position + 1, used);
+                used[tile] = false;
+            }
+        }
+    }
+
+    private static void assertOptimal(PuzzleNode start) {
+        Node<int[]> optimal = new AStarSearch().solve(start);
+        assertNotNull(optimal);
+        for (int duplicateLength : new int[]{2, DuplicateMoveAutomaton.DEFAULT_MAX_LENGTH}) {
+            Node<int[]> result = new IterativeDeepeningAStarSearch(duplicateLength).solve(start);
+            assertNotNull(result);
+            assertTrue(result.isGoal());
+            assertEquals(optimal.getCosts(), result.getCosts(), "Costs of duplicate length " + duplicateLength);
+        }
+    }
+
+    /**
+     * Creates a uniformly distributed solvable board: a random permutation, whose first two tiles are swapped if it
+     * is not solvable.
+     */
+    static PuzzleNode createRandomBoard(PuzzleNode.PuzzleSize size, Random random) {
+        int[] tiles = new int[size.getWidth() * size.getHeight()];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = i;
+        }
+        for (int i = tiles.length - 1; i > 0; i--) {
+            swap(tiles, i, random.nextInt(i + 1));
+        }
+        PuzzleNode board = new PuzzleNode(null, size, tiles, null);
+        if (board.isSolvable()) {
+            return board;
+        }
+        int first = tiles[0] == 0 ? 1 : 0;
+        int second = tiles[first + 1] == 0 ? first + 2 : first + 1;
+        swap(tiles, first, second);
+        return new PuzzleNode(null, size, tiles, null);
+    }
+
+    private static void swap(int[] tiles, int i, int j) {
+        int tile = tiles[i];
+        tiles[i] = tiles[j];
+        tiles[j] = tile;
+    }
+
+}
@@ -0,0 +1,38 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the solution costs of SMA* with the costs of A*, also with a node limit which forces it to forget nodes.
+ */
+class MemoryBoundedAStarSearchTest {
+
+    private static final long SEED = 42;
+    private static final int BOARDS = 20;
+
+    @Test
+    void solvesRandomBoardsOptimally() {
+        Random random = new Random(SEED);
+        PuzzleNode.PuzzleSize size = new PuzzleNode.PuzzleSize(3, 3);
+        for (int i = 0; i < BOARDS; i++) {
+            PuzzleNode start = IterativeDeepeningAStarSearchTest.createRandomBoard(size, random);
+            Node<int[]> optimal = new AStarSearch().solve(start);
+            for (SolveStrategy strategy : new SolveStrategy[]{new MemoryBoundedAStarSearch(),
+                    new MemoryBoundedAStarSearch(2000)}) {
+                Node<int[]> result = strategy.solve(new PuzzleNode(null, size, start.getState(), null));
+                assertNotNull(result);
+                assertTrue(result.isGoal());
+                assertEquals(optimal.getCosts(), result.getCosts());
+            }
+        }
+    }
+
+}
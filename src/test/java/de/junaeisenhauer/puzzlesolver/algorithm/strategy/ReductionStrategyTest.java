@@ -0,0 +1,66 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Solves random boards of many sizes with the reduction strategy. The solutions are not optimal, but the path has to
+ * lead from the board to the goal.
+ */
+class ReductionStrategyTest {
+
+    private static final long SEED = 42;
+    private static final int BOARDS_PER_SIZE = 20;
+
+    @Test
+    void solvesRandomBoardsOfManySizes() {
+        Random random = new Random(SEED);
+        for (int width = 2; width <= 8; width++) {
+            for (int height = 2; height <= 8; height++) {
+                PuzzleNode.PuzzleSize size = new PuzzleNode.PuzzleSize(width, height);
+                for (int i = 0; i < BOARDS_PER_SIZE; i++) {
+                    assertSolved(IterativeDeepeningAStarSearchTest.createRandomBoard(size, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    void solvesLargeBoards() {
+        Random random = new Random(SEED);
+        for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(20, 20),
+                new PuzzleNode.PuzzleSize(2, 30), new PuzzleNode.PuzzleSize(30, 2), new PuzzleNode.PuzzleSize(17, 5)}) {
+            assertSolved(IterativeDeepeningAStarSearchTest.createRandomBoard(size, random));
+        }
+    }
+
+    @Test
+    void returnsNullForUnsolvableBoards() {
+        PuzzleNode.PuzzleSize size = new PuzzleNode.PuzzleSize(3, 3);
+        PuzzleNode board = new PuzzleNode(null, size, new int[]{2, 1, 3, 4, 5, 6, 7, 8, 0}, null);
+        assertNull(new ReductionStrategy().solve(board));
+    }
+
+    private static void assertSolved(PuzzleNode start) {
+        Node<int[]> result = new ReductionStrategy().solve(start);
+        assertNotNull(result, () -> "No solution for " + start);
+        assertTrue(result.isGoal());
+        int moves = 0;
+        Node<int[]> node = result;
+        for (; node.getParent() != null; node = node.getParent()) {
+            moves++;
+        }
+        assertArrayEquals(start.getState(), node.getState());
+        assertEquals(moves, result.getCosts());
+    }
+
+}
@@ -0,0 +1,129 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleBoard;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionCacheTest {
+
+    private static final String STRATEGY = "test";
+    private static final PuzzleNode.MoveDirection[] DIRECTIONS = PuzzleNode.MoveDirection.values();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void looksUpEveryStateOfAPath() {
+        SolutionCache cache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
+        PuzzleNode goal = createSolution(new PuzzleNode.PuzzleSize(3, 3), 20, new Random(1));
+        cache.put(STRATEGY, goal);
+
+        // the goal itself is not cached, a state visited twice keeps the shorter rest of the path
+        for (PuzzleNode node = (PuzzleNode) goal.getParent(); node != null; node = (PuzzleNode) node.getParent()) {
+            PuzzleNode result = cache.lookup(STRATEGY, new PuzzleNode(null, node.getSize(), node.getState(), null));
+            assertNotNull(result);
+            assertTrue(result.isGoal());
+            assertTrue(result.getCosts() <= goal.getCosts() - node.getCosts());
+        }
+        assertNull(cache.lookup("other", getStart(goal)));
+    }
+
+    @Test
+    void distinguishesBoardsWhichOnlyDifferAboveTile255() {
+        SolutionCache cache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
+        PuzzleNode goal = createSolution(new PuzzleNode.PuzzleSize(17, 17), 30, new Random(2));
+        cache.put(STRATEGY, goal);
+
+        // tiles 257 and 258 have the same lowest 8 bits as tiles 1 and 2
+        int[] tiles = getStart(goal).getState().clone();
+        swapTiles(tiles, 1, 257);
+        swapTiles(tiles, 2, 258);
+        PuzzleNode other = new PuzzleNode(null, goal.getSize(), tiles, null);
+        assertNull(cache.lookup(STRATEGY, other));
+        assertNotNull(cache.lookup(STRATEGY, getStart(goal)));
+    }
+
+    @Test
+    void loadsSavedPaths() throws IOException {
+        SolutionCache cache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
+        List<PuzzleNode> goals = new ArrayList<>();
+        goals.add(createSolution(new PuzzleNode.PuzzleSize(3, 3), 20, new Random(3)));
+        goals.add(createSolution(new PuzzleNode.PuzzleSize(5, 3), 25, new Random(4)));
+        goals.add(createSolution(new PuzzleNode.PuzzleSize(17, 17), 30, new Random(5)));
+        goals.add(createSolution(new PuzzleNode.PuzzleSize(20, 20), 40, new Random(6)));
+        for (PuzzleNode goal : goals) {
+            cache.put(STRATEGY, goal);
+        }
+        Path file = directory.resolve("solutions.bin");
+        cache.save(file);
+
+        SolutionCache loadedCache = new SolutionCache(SolutionCache.DEFAULT_MAX_STATES);
+        loadedCache.load(file);
+        assertEquals(cache.size(), loadedCache.size());
+        for (PuzzleNode goal : goals) {
+            PuzzleNode result = loadedCache.lookup(STRATEGY, getStart(goal));
+            assertNotNull(result);
+            assertTrue(result.isGoal());
+            assertEquals(goal.getCosts(), result.getCosts());
+            assertArrayEquals(goal.getState(), result.getState());
+        }
+    }
+
+    /**
+     * Creates a path to the goal from a board which is reached from the goal by random moves.
+     *
+     * @return the goal node, whose parents lead back to the board
+     */
+    private static PuzzleNode createSolution(PuzzleNode.PuzzleSize size, int moves, Random random) {
+        PuzzleNode node = PuzzleNode.createGoal(size);
+        List<Integer> path = new ArrayList<>();
+        while (path.size() < moves) {
+            int direction = random.nextInt(DIRECTIONS.length);
+            if (!path.isEmpty() && direction == PuzzleBoard.opposite(path.get(path.size() - 1))) {
+                continue;
+            }
+            PuzzleNode child = node.getChild(DIRECTIONS[direction]);
+            if (child != null) {
+                node = child;
+                path.add(direction);
+            }
+        }
+        node = new PuzzleNode(null, size, node.getState(), null);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            node = node.getChild(DIRECTIONS[PuzzleBoard.opposite(path.get(i))]);
+        }
+        return node;
+    }
+
+    private static PuzzleNode getStart(PuzzleNode goal) {
+        PuzzleNode node = goal;
+        while (node.getParent() != null) {
+            node = (PuzzleNode) node.getParent();
+        }
+        return new PuzzleNode(null, node.getSize(), node.getState(), null);
+    }
+
+    private static void swapTiles(int[] tiles, int first, int second) {
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == first) {
+                tiles[i] = second;
+            } else if (tiles[i] == second) {
+                tiles[i] = first;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the parity check against the states reachable from the goal on square and rectangular boards, and that
+ * every strategy rejects unsolvable boards at once.
+ */
+class SolvabilityTest {
+
+    private static final PuzzleNode.PuzzleSize[] SIZES = {new PuzzleNode.PuzzleSize(2, 2),
+            new PuzzleNode.PuzzleSize(2, 3), new PuzzleNode.PuzzleSize(3, 2), new PuzzleNode.PuzzleSize(2, 4),
+            new PuzzleNode.PuzzleSize(4, 2), new PuzzleNode.PuzzleSize(3, 3), new PuzzleNode.PuzzleSize(1, 4),
+            new PuzzleNode.PuzzleSize(4, 1)};
+
+    @Test
+    void acceptsExactlyTheStatesReachableFromTheGoal() {
+        for (PuzzleNode.PuzzleSize size : SIZES) {
+            Set<PuzzleNode> reachable = getReachableStates(size);
+            int length = size.getWidth() * size.getHeight();
+            int[] tiles = new int[length];
+            int[] solvableCount = new int[1];
+            permute(tiles, 0, new boolean[length], state -> {
+                PuzzleNode node = new PuzzleNode(null, size, state, null);
+                assertEquals(reachable.contains(node), node.isSolvable(), () -> "Parity of " + Arrays.toString(state));
+                if (node.isSolvable()) {
+                    solvableCount[0]++;
+                }
+            });
+            assertEquals(reachable.size(), solvableCount[0], size.toString());
+        }
+    }
+
+    @Test
+    void everyStrategyRejectsUnsolvableBoards() {
+        for (String name : SolveStrategies.getNames()) {
+            SolveStrategy strategy = SolveStrategies.create(name);
+            for (PuzzleNode.PuzzleSize size : new PuzzleNode.PuzzleSize[]{new PuzzleNode.PuzzleSize(3, 3),
+                    new PuzzleNode.PuzzleSize(4, 3), new PuzzleNode.PuzzleSize(2, 5)}) {
+                int[] tiles = PuzzleNode.createGoal(size).getState().clone();
+                // swapping two tiles changes the parity of the permutation only
+                int tile = tiles[0];
+                tiles[0] = tiles[1];
+                tiles[1] = tile;
+                PuzzleNode start = new PuzzleNode(null, size, tiles, null);
+                assertFalse(start.isSolvable());
+                Node<int[]> result = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> strategy.solve(start),
+                        name + " " + size);
+                assertNull(result, name);
+            }
+        }
+    }
+
+    private static Set<PuzzleNode> getReachableStates(PuzzleNode.PuzzleSize size) {
+        PuzzleNode goal = PuzzleNode.createGoal(size);
+        Set<PuzzleNode> reachable = new HashSet<>();
+        Queue<PuzzleNode> queue = new ArrayDeque<>();
+        reachable.add(goal);
+        queue.add(goal);
+        while (!queue.isEmpty()) {
+            PuzzleNode node = queue.poll();
+            for (PuzzleNode.MoveDirection direction : PuzzleNode.MoveDirection.values()) {
+                PuzzleNode child = node.getChild(direction);
+                if (child != null && reachable.add(child)) {
+                    // without the parent, so the visited states do not keep their paths
+                    queue.add(new PuzzleNode(null, size, child.getState(), null));
+                }
+            }
+        }
+        assertTrue(reachable.contains(goal));
+        return reachable;
+    }
+
+    private static void permute(int[] tiles, int position, boolean[] used, Consumer<int[]> consumer) {
+        if (position == tiles.length) {
+            consumer.accept(tiles.clone());
+            return;
+        }
+        for (int tile = 0; tile < tiles.length; tile++) {
+            if (!used[tile]) {
+                used[tile] = true;
+                tiles[position] = tile;
+                permute(tiles, position + 1, used, consumer);
+                used[tile] = false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package de.junaeisenhauer.puzzlesolver.algorithm.strategy;
+
+import de.junaeisenhauer.puzzlesolver.algorithm.Node;
+import de.junaeisenhauer.puzzlesolver.algorithm.PuzzleNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranspositionTableTest {
+
+    private static final long SEED = 42;
+
+    @Test
+    void prunesVisitsWithHigherOrEqualCosts() {
+        TranspositionTable table = new TranspositionTable(1024);
+        assertFalse(table.visit(7, 5));
+        assertTrue(table.visit(7, 5));
+        assertTrue(table.visit(7, 6));
+        assertFalse(table.visit(7, 3));
+        assertTrue(table.visit(7, 4));
+        assertFalse(table.visit(8, 4));
+    }
+
+    @Test
+    void forgetsAllEntriesOnClear() {
+        TranspositionTable table = new TranspositionTable(1024);
+        for (int generation = 0; generation < 600; generation++) {
+            assertFalse(table.visit(7, 5), "generation " + generation);
+            assertTrue(table.visit(7, 5));
+            table.clear();
+        }
+    }
+
+    @Test
+    void neverPrunesAVisitWithLowerCostsThanRecorded() {
+        // far more states than slots, so entries are replaced all the time
+        TranspositionTable table = new TranspositionTable(256);
+        Map<Long, Integer> lowestCosts = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(1000);
+            int costs = random.nextInt(50);
+            Integer lowest = lowestCosts.get(key);
+            boolean pruned = table.visit(key, costs);
+            if (lowest == null || costs < lowest) {
+                assertFalse(pruned, "key " + key + " costs " + costs);
+                lowestCosts.put(key, costs);
+            }
+        }
+    }
+
+    @Test
+    void keepsIterativeDeepeningOptimal() {
+        Random random = new Random(SEED);
+        PuzzleNode.PuzzleSize size = new PuzzleNode.PuzzleSize(3, 3);
+        for (int i = 0; i < 10; i++) {
+            PuzzleNode start = IterativeDeepeningAStarSearchTest.createRandomBoard(size, random);
+            Node<int[]> optimal = new AStarSearch().solve(start);
+            // a tiny table forgets most states, which may only cost time
+            for (long tableBytes : new long[]{1024, TranspositionTable.DEFAULT_MAX_MEMORY_BYTES}) {
+                Node<int[]> result = new IterativeDeepening(tableBytes)
+                        .solve(new PuzzleNode(null, size, start.getState(), null));
+                assertNotNull(result);
+                assertTrue(result.isGoal());
+                assertEquals(optimal.getCosts(), result.getCosts(), "table bytes " + tableBytes);
+            }
+        }
+    }
+
+}